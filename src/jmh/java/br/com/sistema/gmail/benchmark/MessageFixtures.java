@@ -0,0 +1,95 @@
+package br.com.sistema.gmail.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+
+/**
+ * Mensagens da Gmail API ({@code format=full}) gravadas em
+ * {@code src/jmh/resources/fixtures}.
+ *
+ * <ul>
+ *   <li>{@code text-1kb} — text/plain simples</li>
+ *   <li>{@code newsletter-70kb} — multipart/alternative com HTML de newsletter</li>
+ *   <li>{@code multipart-5mb} — multipart/mixed com anexos, partes de texto
+ *       ampliadas para ~5 MB na carga (evita versionar o arquivo inteiro)</li>
+ * </ul>
+ */
+final class MessageFixtures {
+
+    static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private static final int LARGE_TARGET_BYTES = 5 * 1024 * 1024;
+
+    private MessageFixtures() {
+    }
+
+    static String json(String fixture) {
+        try {
+            return switch (fixture) {
+                case "text-1kb" -> read("text-plain");
+                case "newsletter-70kb" -> read("html-alternative");
+                case "multipart-5mb" -> JSON_FACTORY.toString(inflate(parse(read("multipart-mixed")), LARGE_TARGET_BYTES));
+                default -> throw new IllegalArgumentException("Fixture desconhecida: " + fixture);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Message message(String fixture) {
+        try {
+            return parse(json(fixture));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Message parse(String json) throws IOException {
+        return JSON_FACTORY.fromString(json, Message.class);
+    }
+
+    private static String read(String name) throws IOException {
+        try (InputStream in = MessageFixtures.class.getResourceAsStream("/fixtures/" + name + ".json")) {
+            if (in == null) {
+                throw new IOException("Fixture não encontrada: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // Repete o conteúdo de cada parte de texto até o total chegar a targetBytes
+    private static Message inflate(Message message, int targetBytes) {
+        List<MessagePart> textParts = new ArrayList<>();
+        collectTextParts(message.getPayload(), textParts);
+
+        long current = textParts.stream().mapToLong(part -> part.getBody().decodeData().length).sum();
+        int copies = (int) Math.max(1, (targetBytes + current - 1) / Math.max(1, current));
+
+        for (MessagePart part : textParts) {
+            String text = new String(part.getBody().decodeData(), StandardCharsets.UTF_8);
+            byte[] inflated = text.repeat(copies).getBytes(StandardCharsets.UTF_8);
+            part.getBody().encodeData(inflated);
+            part.getBody().setSize(inflated.length);
+        }
+        return message;
+    }
+
+    private static void collectTextParts(MessagePart part, List<MessagePart> textParts) {
+        if (part.getMimeType() != null && part.getMimeType().startsWith("text/")
+                && part.getBody() != null && part.getBody().getData() != null) {
+            textParts.add(part);
+        }
+        if (part.getParts() != null) {
+            part.getParts().forEach(child -> collectTextParts(child, textParts));
+        }
+    }
+}
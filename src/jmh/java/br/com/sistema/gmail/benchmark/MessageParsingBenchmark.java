@@ -0,0 +1,72 @@
+package br.com.sistema.gmail.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.mapper.MessageHeaders;
+import br.com.sistema.gmail.mapper.MimeBodyExtractor;
+import br.com.sistema.gmail.models.Email;
+
+/**
+ * Leitura de uma mensagem recebida da Gmail API: JSON → {@link Message},
+ * leitura dos headers, conversão para {@link Email} e extração do corpo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageParsingBenchmark {
+
+    @Param({"text-1kb", "newsletter-70kb", "multipart-5mb"})
+    private String fixture;
+
+    private String json;
+    private Message message;
+
+    private final EmailMapper emailMapper = new EmailMapper();
+    // Mesmo limite padrão de produção (gmail.body.max-bytes)
+    private final MimeBodyExtractor bodyExtractor = new MimeBodyExtractor(32768);
+
+    @Setup
+    public void setUp() {
+        json = MessageFixtures.json(fixture);
+        message = MessageFixtures.message(fixture);
+    }
+
+    @Benchmark
+    public Message parseJson() throws IOException {
+        return MessageFixtures.parse(json);
+    }
+
+    @Benchmark
+    public MessageHeaders headers() {
+        return emailMapper.headers(message);
+    }
+
+    @Benchmark
+    public Email toEmail() {
+        return emailMapper.toEmail(message);
+    }
+
+    @Benchmark
+    public String getEmailBody() {
+        return bodyExtractor.extract(message);
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.sistema.gmail.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.mapper.MimeMessageEncoder;
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.tools.MessageRefRegistry;
+import br.com.sistema.gmail.tools.ToolOutputFormatter;
+import jakarta.mail.MessagingException;
+
+/**
+ * Saída das tools: montagem da listagem compacta devolvida ao Gemini e
+ * montagem do MIME em {@code sendEmail}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolOutputBenchmark {
+
+    @Benchmark
+    public String formatListing(Listing state) {
+        return state.outputFormatter.formatListing("Últimos emails", state.emails);
+    }
+
+    @Benchmark
+    public String buildMime(Mime state) throws MessagingException, IOException {
+        return state.mimeEncoder.encode("maria.silva@empresa.com.br", "Relatório semanal — números atualizados", state.body);
+    }
+
+    // ===============================
+    // Estados (parâmetros separados por benchmark)
+    // ===============================
+
+    @State(Scope.Benchmark)
+    public static class Listing {
+
+        @Param({"10", "50", "100"})
+        private int emailCount;
+
+        private List<Email> emails;
+
+        private final ToolOutputFormatter outputFormatter = new ToolOutputFormatter(
+                new MessageRefRegistry(10_000, Duration.ofHours(2)), 1500, 4000, "America/Sao_Paulo");
+
+        @Setup
+        public void setUp() {
+            EmailMapper mapper = new EmailMapper();
+            List<Message> samples = List.of(
+                    MessageFixtures.message("text-1kb"),
+                    MessageFixtures.message("newsletter-70kb"));
+
+            // Remetentes se repetem, como em uma caixa de entrada real (exercita os apelidos @n)
+            emails = new ArrayList<>(emailCount);
+            for (int i = 0; i < emailCount; i++) {
+                Email email = mapper.toEmail(samples.get(i % samples.size()));
+                email.setId(Long.toHexString(0x18e3a1f2c4b5d6e7L + i));
+                emails.add(email);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mime {
+
+        @Param({"256", "16384", "1048576"})
+        private int bodyChars;
+
+        private String body;
+
+        private final MimeMessageEncoder mimeEncoder = new MimeMessageEncoder();
+
+        @Setup
+        public void setUp() {
+            body = "Olá! Segue o relatório atualizado com os números da semana. ".repeat(bodyChars / 60 + 1)
+                    .substring(0, bodyChars);
+        }
+    }
+}
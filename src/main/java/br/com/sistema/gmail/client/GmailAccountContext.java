@@ -0,0 +1,66 @@
+package br.com.sistema.gmail.client;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Conta do Gmail da requisição em andamento.
+ *
+ * Definida por requisição HTTP (header {@code X-Gmail-Account}) e lida
+ * pelo cliente, caches, limitador de cota e estado sincronizado. Tarefas
+ * enviadas a outros executores devem ser embrulhadas com {@link #wrap} ou
+ * {@link #propagating} para levar a conta junto.
+ */
+public final class GmailAccountContext {
+
+    public static final String DEFAULT_ACCOUNT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private GmailAccountContext() {
+    }
+
+    public static String current() {
+        String account = CURRENT.get();
+        return account != null ? account : DEFAULT_ACCOUNT;
+    }
+
+    /**
+     * Define a conta até o {@link Scope#close()}, restaurando a anterior.
+     */
+    public static Scope open(String accountId) {
+        String previous = CURRENT.get();
+        CURRENT.set(accountId);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static Runnable wrap(Runnable task) {
+        String account = current();
+        return () -> {
+            try (Scope scope = open(account)) {
+                task.run();
+            }
+        };
+    }
+
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    /**
+     * Chave prefixada pela conta atual, para caches compartilhados entre contas.
+     */
+    public static String scoped(String key) {
+        return current() + '/' + key;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
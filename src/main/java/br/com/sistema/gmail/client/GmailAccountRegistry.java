@@ -0,0 +1,103 @@
+package br.com.sistema.gmail.client;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.sistema.gmail.config.GmailAccountsProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contas do Gmail atendidas por esta instância.
+ *
+ * A conta {@value GmailAccountContext#DEFAULT_ACCOUNT} vem de
+ * {@code gmail.client-id}/{@code client-secret}/{@code refresh-token}
+ * (quando configurada); as demais, de {@code gmail.accounts.<id>.*}.
+ *
+ * Cada conta pode ter uma API key ({@code gmail.api-key} /
+ * {@code gmail.accounts.<id>.api-key}): quem apresenta a chave pode usar
+ * as contas configuradas com ela.
+ */
+@Component
+@Slf4j
+public class GmailAccountRegistry {
+
+    private final Map<String, GmailAccount> accounts = new LinkedHashMap<>();
+
+    public GmailAccountRegistry(
+            GmailAccountsProperties properties,
+            @Value("${gmail.client-id:}") String clientId,
+            @Value("${gmail.client-secret:}") String clientSecret,
+            @Value("${gmail.refresh-token:}") String refreshToken,
+            @Value("${gmail.api-key:}") String apiKey) {
+
+        if (!refreshToken.isBlank()) {
+            accounts.put(GmailAccountContext.DEFAULT_ACCOUNT,
+                    new GmailAccount(GmailAccountContext.DEFAULT_ACCOUNT, clientId, clientSecret, refreshToken, apiKey));
+        }
+        properties.accounts().forEach((id, credentials) -> {
+            // O id da conta prefixa chaves de cache e sessões no formato "<conta>/..."
+            if (id.contains("/")) {
+                throw new IllegalArgumentException("Id de conta Gmail inválido (contém '/'): " + id);
+            }
+            accounts.put(id, new GmailAccount(id, credentials.clientId(), credentials.clientSecret(),
+                    credentials.refreshToken(), credentials.apiKey()));
+        });
+
+        log.info("👥 {} conta(s) Gmail configurada(s): {}", accounts.size(), accounts.keySet());
+    }
+
+    public GmailAccount resolve(String accountId) {
+        GmailAccount account = accounts.get(accountId);
+        if (account == null) {
+            throw new IllegalArgumentException("Conta Gmail não configurada: " + accountId);
+        }
+        return account;
+    }
+
+    public boolean contains(String accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    public Set<String> accountIds() {
+        return accounts.keySet();
+    }
+
+    /**
+     * Contas liberadas para a API key; vazio se a chave não confere com nenhuma.
+     */
+    public Set<String> accountsFor(String apiKey) {
+        if (apiKey == null || apiKey.isBlank()) {
+            return Set.of();
+        }
+        byte[] presented = apiKey.trim().getBytes(StandardCharsets.UTF_8);
+
+        Set<String> allowed = new LinkedHashSet<>();
+        for (GmailAccount account : accounts.values()) {
+            // Comparação em tempo constante: não revela prefixos corretos
+            if (account.hasApiKey()
+                    && MessageDigest.isEqual(presented, account.apiKey().getBytes(StandardCharsets.UTF_8))) {
+                allowed.add(account.id());
+            }
+        }
+        return allowed;
+    }
+
+    public record GmailAccount(String id, String clientId, String clientSecret, String refreshToken, String apiKey) {
+
+        public boolean hasApiKey() {
+            return apiKey != null && !apiKey.isBlank();
+        }
+
+        @Override
+        public String toString() {
+            return "GmailAccount[" + id + "]";
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package br.com.sistema.gmail.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache em disco dos anexos já decodificados, opcional.
+ *
+ * Habilitado quando {@code gmail.attachments.cache-dir} é informado; o total
+ * em disco é limitado por {@code gmail.attachments.cache-max-bytes} (eviction
+ * do Caffeine, que apaga o arquivo ao remover a entrada). Cada gravação usa
+ * um arquivo novo, movido para o lugar só depois de completo: um download
+ * interrompido nunca fica no cache.
+ *
+ * Cada arquivo conta suas leituras em andamento: a eviction só tira a
+ * entrada do índice, e o arquivo é apagado quando o último leitor termina.
+ *
+ * O índice vive em memória; arquivos de uma execução anterior são apagados
+ * na inicialização.
+ */
+@Component
+@Slf4j
+public class GmailAttachmentCache {
+
+    private static final String SUFFIX = ".att";
+
+    private final Path directory;
+    private final Cache<String, CachedFile> files;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public GmailAttachmentCache(
+            @Value("${gmail.attachments.cache-dir:}") String directory,
+            @Value("${gmail.attachments.cache-max-bytes:536870912}") long maxBytes) throws IOException {
+
+        if (directory == null || directory.isBlank()) {
+            this.directory = null;
+            this.files = null;
+            return;
+        }
+
+        this.directory = Path.of(directory);
+        Files.createDirectories(this.directory);
+        purge();
+
+        this.files = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedFile file) -> file.weight())
+                .removalListener((String key, CachedFile file, RemovalCause cause) -> {
+                    if (file != null) {
+                        file.release();
+                    }
+                })
+                .build();
+
+        log.info("📎 Cache de anexos em {} (máx. {} MB)", this.directory, maxBytes / (1024 * 1024));
+    }
+
+    public boolean isEnabled() {
+        return files != null;
+    }
+
+    /**
+     * Entrega o arquivo do anexo a {@code reader}, que o lê sem risco de a
+     * eviction apagá-lo no meio. Retorna {@code false} se não está no cache.
+     */
+    public boolean read(String messageId, String partId, Reader reader) throws IOException {
+        if (files == null) {
+            return false;
+        }
+        CachedFile file = files.getIfPresent(key(messageId, partId));
+        if (file == null || !file.retain()) {
+            return false;
+        }
+        try {
+            reader.read(file.path());
+            return true;
+        } finally {
+            file.release();
+        }
+    }
+
+    /**
+     * Grava o anexo com {@code writer} e o registra no cache.
+     */
+    public void store(String messageId, String partId, Writer writer) throws IOException {
+        String key = key(messageId, partId);
+        Path temp = Files.createTempFile(directory, "download-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+            Path file = directory.resolve(fileName(key));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            files.put(key, new CachedFile(file, Files.size(file)));
+
+        } catch (IOException | RuntimeException e) {
+            delete(temp);
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Reader {
+        void read(Path file) throws IOException;
+    }
+
+    // ===============================
+    // Arquivo com contagem de leitores
+    // ===============================
+
+    /**
+     * Começa com a referência do próprio cache, devolvida na eviction; cada
+     * leitura soma uma. O arquivo some quando a contagem chega a zero.
+     */
+    private static final class CachedFile {
+
+        private final Path path;
+        private final long size;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private CachedFile(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+        Path path() {
+            return path;
+        }
+
+        int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, size);
+        }
+
+        // Falha se o arquivo já foi liberado (evicted e sem leitores)
+        boolean retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                delete(path);
+            }
+        }
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    // IDs de mensagem só são únicos dentro de uma caixa
+    private String key(String messageId, String partId) {
+        return GmailAccountContext.scoped(messageId + '/' + partId);
+    }
+
+    // Hash da chave (nomes de conta e IDs não viram caminho) + sequência, para nunca sobrescrever um arquivo em uso
+    private String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + '-' + sequence.incrementAndGet() + SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void purge() throws IOException {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*{" + SUFFIX + ",.tmp}")) {
+            for (Path file : stale) {
+                delete(file);
+            }
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Não foi possível apagar {}: {}", file, e.getMessage());
+        }
+    }
+}
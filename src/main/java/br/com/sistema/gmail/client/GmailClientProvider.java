@@ -0,0 +1,207 @@
+package br.com.sistema.gmail.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.gmail.Gmail;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.UserCredentials;
+
+import br.com.sistema.gmail.client.GmailAccountRegistry.GmailAccount;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fornece o cliente da Gmail API da conta atual ({@link GmailAccountContext}),
+ * em modo headless via refresh token.
+ *
+ * Compartilhado pelas tools e pela sincronização da caixa de entrada.
+ *
+ * Os clientes ficam em cache por conta (até {@code gmail.clients.cache-size},
+ * expirando após {@code gmail.clients.ttl} sem uso) e compartilham um único
+ * transporte Apache HttpClient com pool de conexões keep-alive
+ * ({@code gmail.http.*}), para que requisições concorrentes reutilizem
+ * conexões TLS já abertas. Timeouts de conexão e leitura valem para todas
+ * as chamadas, inclusive os batches.
+ *
+ * Os access tokens são renovados em segundo plano antes de expirar
+ * ({@code gmail.clients.token-refresh-margin}), para que nenhuma requisição
+ * de usuário espere pelo endpoint de token. Uma falha na criação do cliente
+ * é propagada (e a próxima chamada tenta de novo) em vez de devolver {@code null}.
+ *
+ * {@code gmail.api.root-url} e {@code gmail.oauth.token-uri} trocam os
+ * endpoints do Google (ex.: por um stub local nos testes de carga); vazios,
+ * valem os padrões das bibliotecas.
+ */
+@Component
+@Slf4j
+public class GmailClientProvider {
+
+    private static final String APPLICATION_NAME = "Gmail AI Assistant";
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final GmailAccountRegistry accountRegistry;
+    private final CloseableHttpClient httpClient;
+    private final ApacheHttpTransport httpTransport;
+    private final Cache<String, AccountClient> clients;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Duration tokenRefreshMargin;
+    private final String rootUrl;
+    private final String tokenUri;
+
+    public GmailClientProvider(
+            GmailAccountRegistry accountRegistry,
+            @Value("${gmail.http.max-connections:64}") int maxConnections,
+            @Value("${gmail.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${gmail.http.read-timeout:PT30S}") Duration readTimeout,
+            @Value("${gmail.http.keep-alive:PT60S}") Duration keepAlive,
+            @Value("${gmail.clients.cache-size:100}") long cacheSize,
+            @Value("${gmail.clients.ttl:PT1H}") Duration clientTtl,
+            @Value("${gmail.clients.token-refresh-margin:PT10M}") Duration tokenRefreshMargin,
+            @Value("${gmail.api.root-url:}") String rootUrl,
+            @Value("${gmail.oauth.token-uri:}") String tokenUri) {
+
+        this.accountRegistry = accountRegistry;
+        this.connectTimeoutMillis = (int) connectTimeout.toMillis();
+        this.readTimeoutMillis = (int) readTimeout.toMillis();
+        this.tokenRefreshMargin = tokenRefreshMargin;
+        this.rootUrl = rootUrl;
+        this.tokenUri = tokenUri;
+
+        this.httpClient = createHttpClient(maxConnections, keepAlive);
+        this.httpTransport = new ApacheHttpTransport(httpClient);
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(clientTtl)
+                .build();
+    }
+
+    public Gmail getGmailService() {
+        return clients.get(GmailAccountContext.current(), this::createClient).gmail();
+    }
+
+    private AccountClient createClient(String accountId) {
+        GmailAccount account = accountRegistry.resolve(accountId);
+        try {
+            log.info("🔌 Conectando ao Gmail API (headless, conta {})", accountId);
+
+            UserCredentials.Builder credentialsBuilder = UserCredentials.newBuilder()
+                    .setClientId(account.clientId())
+                    .setClientSecret(account.clientSecret())
+                    .setRefreshToken(account.refreshToken());
+            if (!tokenUri.isBlank()) {
+                credentialsBuilder.setTokenServerUri(URI.create(tokenUri));
+            }
+            UserCredentials credentials = credentialsBuilder.build();
+
+            Gmail.Builder serviceBuilder = new Gmail.Builder(httpTransport, JSON_FACTORY, withTimeouts(new HttpCredentialsAdapter(credentials)))
+                    .setApplicationName(APPLICATION_NAME);
+            if (!rootUrl.isBlank()) {
+                serviceBuilder.setRootUrl(rootUrl);
+            }
+            Gmail service = serviceBuilder.build();
+
+            log.info("✅ Conectado ao Gmail (conta {})", accountId);
+            return new AccountClient(service, credentials);
+
+        } catch (Exception e) {
+            log.error("❌ Erro ao conectar Gmail (conta {})", accountId, e);
+            throw new IllegalStateException("Falha ao conectar ao Gmail: " + e.getMessage(), e);
+        }
+    }
+
+    // ===============================
+    // Renovação proativa dos tokens
+    // ===============================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String accountId : accountRegistry.accountIds()) {
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(accountId)) {
+                getGmailService();
+            } catch (Exception e) {
+                log.warn("⚠️ Conta {} indisponível no início: {}", accountId, e.getMessage());
+            }
+        }
+        refreshTokens();
+    }
+
+    @Scheduled(initialDelayString = "${gmail.clients.token-refresh-interval:PT1M}",
+               fixedDelayString = "${gmail.clients.token-refresh-interval:PT1M}")
+    public void refreshTokens() {
+        Instant threshold = Instant.now().plus(tokenRefreshMargin);
+
+        clients.asMap().forEach((accountId, client) -> {
+            AccessToken token = client.credentials().getAccessToken();
+            Date expiration = token != null ? token.getExpirationTime() : null;
+
+            if (expiration != null && expiration.toInstant().isAfter(threshold)) {
+                return;
+            }
+            try {
+                client.credentials().refresh();
+                log.debug("🔑 Token renovado (conta {})", accountId);
+            } catch (Exception e) {
+                log.warn("⚠️ Falha ao renovar token da conta {}: {}", accountId, e.getMessage());
+            }
+        });
+    }
+
+    // ===============================
+    // Transporte HTTP
+    // ===============================
+
+    private static CloseableHttpClient createHttpClient(int maxConnections, Duration keepAlive) {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+        // Todas as chamadas vão para o mesmo host (gmail.googleapis.com)
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnections);
+        pool.setValidateAfterInactivity(2_000);
+
+        return ApacheHttpTransport.newDefaultHttpClientBuilder()
+                .setConnectionManager(pool)
+                .setKeepAliveStrategy((response, context) -> keepAlive.toMillis())
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private HttpRequestInitializer withTimeouts(HttpRequestInitializer credentials) {
+        return request -> {
+            credentials.initialize(request);
+            request.setConnectTimeout(connectTimeoutMillis);
+            request.setReadTimeout(readTimeoutMillis);
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            log.debug("Erro ao fechar o pool HTTP: {}", e.getMessage());
+        }
+    }
+
+    private record AccountClient(Gmail gmail, UserCredentials credentials) {}
+}
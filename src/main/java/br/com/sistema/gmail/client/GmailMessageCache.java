@@ -0,0 +1,316 @@
+package br.com.sistema.gmail.client;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import br.com.sistema.gmail.dtos.response.CacheStatsResponse;
+
+/**
+ * Cache em memória das mensagens do Gmail.
+ *
+ * Mantém dois níveis independentes, limitados por peso (bytes estimados)
+ * com eviction W-TinyLFU do Caffeine:
+ * - metadata: mensagens da projeção {@link MessageProjection#LISTING}
+ * - full: mensagens completas da projeção {@link MessageProjection#DETAIL}
+ *
+ * Uma entrada só é substituída por uma versão com {@code historyId} igual ou
+ * mais novo; ao receber uma versão mais nova, a cópia do outro nível é
+ * invalidada. As operações de escrita (marcar, lixeira, deletar) atualizam
+ * o cache diretamente.
+ *
+ * As chaves são prefixadas pela conta atual ({@link GmailAccountContext}),
+ * já que IDs de mensagem só são únicos dentro de uma caixa.
+ *
+ * Cada entrada guarda o {@code historyId} da caixa conhecido quando foi lida.
+ * O maior historyId visto (perfil, push ou sincronização) vira a marca d'água
+ * da conta: entradas lidas antes dela são tratadas como faltas, a menos que
+ * a sincronização incremental tenha aplicado todas as alterações desde a
+ * leitura. Sem nenhum historyId conhecido, vale só o TTL.
+ */
+@Component
+public class GmailMessageCache {
+
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<String, Entry> metadata;
+    private final Cache<String, Entry> full;
+    private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    public GmailMessageCache(
+            @Value("${gmail.cache.metadata-max-bytes:8000000}") long metadataMaxBytes,
+            @Value("${gmail.cache.full-max-bytes:64000000}") long fullMaxBytes,
+            @Value("${gmail.cache.ttl:PT10M}") Duration ttl) {
+
+        this.metadata = newTier(metadataMaxBytes, ttl);
+        this.full = newTier(fullMaxBytes, ttl);
+    }
+
+    private static Cache<String, Entry> newTier(long maxBytes, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, Entry entry) -> weigh(entry.message()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // ===============================
+    // Leitura
+    // ===============================
+
+    public Message get(String id, MessageProjection projection) {
+        String key = GmailAccountContext.scoped(id);
+        Watermark watermark = watermark();
+        Entry cached = full.getIfPresent(key);
+        if ((cached == null || !watermark.covers(cached)) && projection == MessageProjection.LISTING) {
+            cached = metadata.getIfPresent(key);
+        }
+        return cached != null && watermark.covers(cached) ? cached.message() : null;
+    }
+
+    /**
+     * Maior historyId conhecido da caixa da conta atual, ou {@code null}.
+     */
+    public BigInteger latestHistoryId() {
+        return watermark().latest();
+    }
+
+    // ===============================
+    // historyId da caixa
+    // ===============================
+
+    /**
+     * Registra um historyId atual da caixa (perfil ou notificação push).
+     * Entradas lidas antes dele deixam de ser servidas.
+     */
+    public void observe(BigInteger historyId) {
+        if (historyId != null) {
+            watermarks.compute(GmailAccountContext.current(),
+                    (account, current) -> (current != null ? current : Watermark.NONE).observe(historyId));
+        }
+    }
+
+    /**
+     * Registra que todas as alterações entre {@code from} e {@code to} foram
+     * aplicadas ao cache (sincronização incremental).
+     */
+    public void markSynced(BigInteger from, BigInteger to) {
+        if (from != null && to != null) {
+            watermarks.compute(GmailAccountContext.current(),
+                    (account, current) -> (current != null ? current : Watermark.NONE).synced(from, to));
+        }
+    }
+
+    // ===============================
+    // Escrita
+    // ===============================
+
+    public void put(Message message, MessageProjection projection) {
+        if (message == null || message.getId() == null) {
+            return;
+        }
+
+        Cache<String, Entry> tier = tierOf(projection);
+        Cache<String, Entry> other = tier == full ? metadata : full;
+
+        String key = GmailAccountContext.scoped(message.getId());
+        tier.asMap().merge(key, new Entry(message, latestHistoryId()),
+                (current, candidate) -> isNewer(current.message(), candidate.message()) ? current : candidate);
+
+        Entry stale = other.getIfPresent(key);
+        if (stale != null && isNewer(message, stale.message())) {
+            other.invalidate(key);
+        }
+    }
+
+    /**
+     * Aplica o resultado de um modify/trash (id, labelIds, historyId)
+     * nas cópias em cache.
+     */
+    public void applyModification(Message modified) {
+        if (modified == null || modified.getId() == null) {
+            return;
+        }
+        updateLabels(metadata, modified);
+        updateLabels(full, modified);
+    }
+
+    /**
+     * Aplica uma alteração de labels sem a mensagem resultante
+     * (batchModify não devolve labels nem historyId).
+     */
+    public void applyLabelChange(String id, List<String> added, List<String> removed) {
+        updateLabels(metadata, id, added, removed);
+        updateLabels(full, id, added, removed);
+    }
+
+    public void invalidate(String id) {
+        String key = GmailAccountContext.scoped(id);
+        metadata.invalidate(key);
+        full.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        metadata.invalidateAll();
+        full.invalidateAll();
+    }
+
+    // ===============================
+    // Estatísticas
+    // ===============================
+
+    public CacheStatsResponse stats() {
+        return new CacheStatsResponse(tierStats(metadata), tierStats(full));
+    }
+
+    private CacheStatsResponse.TierStats tierStats(Cache<String, Entry> tier) {
+        CacheStats stats = tier.stats();
+        long weight = tier.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+
+        return new CacheStatsResponse.TierStats(
+                tier.estimatedSize(),
+                weight,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    private Watermark watermark() {
+        return watermarks.getOrDefault(GmailAccountContext.current(), Watermark.NONE);
+    }
+
+    private Cache<String, Entry> tierOf(MessageProjection projection) {
+        return projection == MessageProjection.DETAIL ? full : metadata;
+    }
+
+    private void updateLabels(Cache<String, Entry> tier, Message modified) {
+        tier.asMap().computeIfPresent(GmailAccountContext.scoped(modified.getId()), (key, entry) -> {
+            Message cached = entry.message();
+            if (isNewer(cached, modified)) {
+                return entry;
+            }
+            List<String> labels = modified.getLabelIds() != null ? List.copyOf(modified.getLabelIds()) : List.of();
+            cached.setLabelIds(labels);
+            cached.setHistoryId(modified.getHistoryId());
+            return entry;
+        });
+    }
+
+    private void updateLabels(Cache<String, Entry> tier, String id, List<String> added, List<String> removed) {
+        tier.asMap().computeIfPresent(GmailAccountContext.scoped(id), (key, entry) -> {
+            Message cached = entry.message();
+            Set<String> labels = new LinkedHashSet<>(cached.getLabelIds() != null ? cached.getLabelIds() : List.of());
+            labels.addAll(added);
+            labels.removeAll(removed);
+            cached.setLabelIds(List.copyOf(labels));
+            return entry;
+        });
+    }
+
+    private static boolean isNewer(Message current, Message candidate) {
+        BigInteger currentHistory = current.getHistoryId();
+        BigInteger candidateHistory = candidate.getHistoryId();
+        return currentHistory != null && candidateHistory != null
+                && currentHistory.compareTo(candidateHistory) > 0;
+    }
+
+    private static int weigh(Message message) {
+        long bytes = ENTRY_OVERHEAD;
+        if (message.getSnippet() != null) {
+            bytes += message.getSnippet().length();
+        }
+        bytes += weigh(message.getPayload());
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long weigh(MessagePart part) {
+        if (part == null) {
+            return 0;
+        }
+        long bytes = 0;
+        if (part.getHeaders() != null) {
+            for (MessagePartHeader header : part.getHeaders()) {
+                bytes += length(header.getName()) + length(header.getValue());
+            }
+        }
+        if (part.getBody() != null) {
+            bytes += length(part.getBody().getData());
+        }
+        if (part.getParts() != null) {
+            for (MessagePart child : part.getParts()) {
+                bytes += weigh(child);
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    // ===============================
+    // Entradas e marca d'água
+    // ===============================
+
+    /**
+     * @param readAt historyId da caixa conhecido quando a mensagem foi lida
+     */
+    private record Entry(Message message, BigInteger readAt) {}
+
+    /**
+     * @param latest     maior historyId conhecido da caixa
+     * @param syncedFrom início da sequência contínua de deltas aplicados ao cache
+     * @param syncedTo   fim dessa sequência
+     */
+    private record Watermark(BigInteger latest, BigInteger syncedFrom, BigInteger syncedTo) {
+
+        static final Watermark NONE = new Watermark(null, null, null);
+
+        Watermark observe(BigInteger historyId) {
+            return latest != null && latest.compareTo(historyId) >= 0
+                    ? this
+                    : new Watermark(historyId, syncedFrom, syncedTo);
+        }
+
+        // Uma lacuna desde a sincronização anterior reinicia a sequência
+        Watermark synced(BigInteger from, BigInteger to) {
+            BigInteger start = syncedTo != null && syncedTo.compareTo(from) >= 0 ? syncedFrom : from;
+            return new Watermark(latest, start, to).observe(to);
+        }
+
+        boolean covers(Entry entry) {
+            if (latest == null) {
+                return true;
+            }
+            BigInteger readAt = entry.readAt();
+            if (readAt == null) {
+                return false;
+            }
+            return readAt.compareTo(latest) >= 0
+                    || (syncedFrom != null && readAt.compareTo(syncedFrom) >= 0 && syncedTo.compareTo(latest) >= 0);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.sistema.gmail.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Busca mensagens do Gmail em lote.
+ *
+ * Agrupa os {@code messages.get} em requisições batch HTTP (até
+ * {@code gmail.fetch.batch-size} por lote) e executa os lotes em paralelo,
+ * devolvendo as mensagens na mesma ordem dos IDs recebidos.
+ *
+ * Itens que falham dentro do batch são refeitos individualmente uma vez.
+ * A {@link MessageProjection} define o formato e a máscara de campos.
+ *
+ * Mensagens presentes no {@link GmailMessageCache} não geram chamadas.
+ *
+ * Cada lote reserva no {@link GmailRateLimiter} o custo de todos os seus
+ * {@code messages.get}; itens recusados por limite de taxa dentro do batch
+ * pausam o limitador e são refeitos individualmente com backoff.
+ *
+ * Com {@code spring.threads.virtual.enabled=true} cada lote roda em uma
+ * virtual thread, limitadas por semáforo a {@code gmail.fetch.parallel-batches}
+ * lotes simultâneos; caso contrário, usa um pool fixo de platform threads.
+ */
+@Component
+@Slf4j
+public class GmailMessageFetcher {
+
+    private static final String USER = "me";
+    // A requisição batch inteira; os itens com erro são contados nos refazimentos individuais
+    private static final String BATCH_OPERATION = "MESSAGES_BATCH_GET";
+
+    private final GmailMessageCache messageCache;
+    private final GmailRateLimiter rateLimiter;
+    private final AssistantMetrics metrics;
+
+    @Value("${gmail.fetch.batch-size:50}")
+    private int batchSize;
+
+    private final ExecutorService batchExecutor;
+    private final Semaphore batchPermits;
+
+    public GmailMessageFetcher(GmailMessageCache messageCache,
+                               GmailRateLimiter rateLimiter,
+                               AssistantMetrics metrics,
+                               @Value("${gmail.fetch.parallel-batches:4}") int parallelBatches,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.messageCache = messageCache;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.batchPermits = new Semaphore(Math.max(1, parallelBatches));
+        this.batchExecutor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Math.max(1, parallelBatches));
+    }
+
+    public List<Message> fetch(Gmail service, List<String> ids, MessageProjection projection) throws IOException {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+
+        Message[] results = new Message[ids.size()];
+        List<Integer> missing = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            results[i] = messageCache.get(ids.get(i), projection);
+            if (results[i] == null) {
+                missing.add(i);
+            }
+        }
+
+        Queue<Integer> failed = new ConcurrentLinkedQueue<>();
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int start = 0; start < missing.size(); start += batchSize) {
+            List<Integer> chunk = missing.subList(start, Math.min(start + batchSize, missing.size()));
+            batches.add(CompletableFuture.runAsync(
+                    GmailAccountContext.wrap(() -> executeBatch(service, ids, projection, chunk, results, failed)),
+                    batchExecutor
+            ));
+        }
+
+        try {
+            CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+
+        for (Integer index : failed) {
+            try {
+                results[index] = rateLimiter.execute(GmailOperation.MESSAGES_GET,
+                        projection.applyTo(service.users().messages().get(USER, ids.get(index))));
+            } catch (IOException e) {
+                log.warn("⚠️ Email {} ignorado após falha no batch: {}", ids.get(index), e.getMessage());
+            }
+        }
+
+        for (Integer index : missing) {
+            messageCache.put(results[index], projection);
+        }
+
+        log.debug("📦 {} emails ({} do cache) buscados em {} lote(s)",
+                ids.size(), ids.size() - missing.size(), batches.size());
+
+        return Arrays.stream(results)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public Message fetchOne(Gmail service, String id, MessageProjection projection) throws IOException {
+        Message cached = messageCache.get(id, projection);
+        if (cached != null) {
+            return cached;
+        }
+
+        Message message = rateLimiter.execute(GmailOperation.MESSAGES_GET,
+                projection.applyTo(service.users().messages().get(USER, id)));
+
+        messageCache.put(message, projection);
+        return message;
+    }
+
+    private void executeBatch(Gmail service, List<String> ids, MessageProjection projection, List<Integer> chunk,
+                              Message[] results, Queue<Integer> failed) {
+        batchPermits.acquireUninterruptibly();
+        try {
+            rateLimiter.acquire(GmailOperation.MESSAGES_GET, chunk.size());
+
+            BatchRequest batch = service.batch(service.getRequestFactory().getInitializer());
+
+            for (int index : chunk) {
+                projection
+                        .applyTo(service.users().messages().get(USER, ids.get(index)))
+                        .queue(batch, new JsonBatchCallback<Message>() {
+                            @Override
+                            public void onSuccess(Message message, HttpHeaders responseHeaders) {
+                                results[index] = message;
+                            }
+
+                            @Override
+                            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                                log.debug("⚠️ Falha no batch para {}: {}", ids.get(index), error.getMessage());
+                                if (rateLimiter.isRateLimited(error)) {
+                                    rateLimiter.onRateLimited();
+                                }
+                                failed.add(index);
+                            }
+                        });
+            }
+
+            long start = System.nanoTime();
+            try {
+                batch.execute();
+                metrics.recordGmailCall(BATCH_OPERATION, System.nanoTime() - start, 200);
+            } catch (IOException e) {
+                metrics.recordGmailCall(BATCH_OPERATION, System.nanoTime() - start, AssistantMetrics.STATUS_IO_ERROR);
+                throw e;
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            batchPermits.release();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.sistema.gmail.client;
+
+/**
+ * Chamadas da Gmail API e o custo de cada uma na cota por usuário
+ * (quota units), conforme a tabela de limites da API.
+ *
+ * {@code retryOnTransient} diz se a chamada pode ser refeita após 5xx ou
+ * timeout: nesses casos o Gmail pode já ter aplicado a operação, e refazer
+ * um envio ou uma exclusão duplicaria o efeito. Limites de taxa (429) são
+ * refeitos sempre, já que a requisição foi recusada.
+ */
+public enum GmailOperation {
+
+    MESSAGES_LIST(5, true),
+    MESSAGES_GET(5, true),
+    MESSAGES_SEND(100, false),
+    MESSAGES_MODIFY(5, true),
+    MESSAGES_TRASH(5, true),
+    MESSAGES_DELETE(10, false),
+    MESSAGES_BATCH_MODIFY(50, true),
+    MESSAGES_BATCH_DELETE(50, false),
+    ATTACHMENTS_GET(5, true),
+    HISTORY_LIST(2, true),
+    GET_PROFILE(1, true);
+
+    private final int units;
+    private final boolean retryOnTransient;
+
+    GmailOperation(int units, boolean retryOnTransient) {
+        this.units = units;
+        this.retryOnTransient = retryOnTransient;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    public boolean isRetryOnTransient() {
+        return retryOnTransient;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.sistema.gmail.client;
+
+import java.io.IOException;
+
+/**
+ * Lançada quando a espera pela cota da Gmail API passaria de
+ * {@code gmail.quota.max-wait}: a chamada é descartada em vez de enfileirada.
+ */
+public class GmailQuotaExceededException extends IOException {
+
+    public GmailQuotaExceededException(String message) {
+        super(message);
+    }
+}
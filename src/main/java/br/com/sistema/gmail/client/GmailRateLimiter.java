@@ -0,0 +1,360 @@
+package br.com.sistema.gmail.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.HttpResponse;
+
+import br.com.sistema.gmail.dtos.response.QuotaStatsResponse;
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limitador de taxa da Gmail API, ciente do custo de cada operação.
+ *
+ * Token bucket em quota units ({@code gmail.quota.units-per-second}, com
+ * rajada de {@code gmail.quota.burst}): cada chamada reserva o custo da sua
+ * {@link GmailOperation} e espera a reposição quando o bucket está vazio.
+ * Se a espera passar de {@code gmail.quota.max-wait}, a chamada é descartada
+ * com {@link GmailQuotaExceededException} em vez de enfileirada.
+ *
+ * Respostas 429 e 403 rateLimitExceeded são refeitas com backoff
+ * exponencial com jitter (respeitando Retry-After); 5xx e timeouts também,
+ * exceto nas operações não idempotentes
+ * ({@link GmailOperation#isRetryOnTransient()}), que devolvem o erro. Um limite
+ * recebido da API pausa o bucket inteiro pelo mesmo intervalo, para que as
+ * demais chamadas concorrentes também recuem.
+ *
+ * A cota da Gmail API é por usuário: cada conta ({@link GmailAccountContext})
+ * tem o seu próprio bucket.
+ *
+ * Como todas as chamadas passam por {@link #execute} (ou
+ * {@link #executeUnparsed}), é aqui que a latência e os erros de cada
+ * tentativa são medidos ({@code gmail.api.requests}).
+ */
+@Component
+@Slf4j
+public class GmailRateLimiter {
+
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+    private static final Set<Integer> TRANSIENT_STATUS = Set.of(500, 502, 503, 504);
+    private static final int WINDOW_SECONDS = 60;
+
+    private final int unitsPerSecond;
+    private final double burst;
+    private final long maxWaitNanos;
+    private final int maxRetries;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final AssistantMetrics metrics;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final Map<GmailOperation, LongAdder> unitsByOperation = new EnumMap<>(GmailOperation.class);
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rateLimitErrors = new LongAdder();
+
+    public GmailRateLimiter(
+            AssistantMetrics metrics,
+            @Value("${gmail.quota.units-per-second:250}") int unitsPerSecond,
+            @Value("${gmail.quota.burst:250}") int burst,
+            @Value("${gmail.quota.max-wait:PT10S}") Duration maxWait,
+            @Value("${gmail.quota.max-retries:4}") int maxRetries,
+            @Value("${gmail.quota.initial-backoff:PT0.5S}") Duration initialBackoff,
+            @Value("${gmail.quota.max-backoff:PT16S}") Duration maxBackoff) {
+
+        this.metrics = metrics;
+        this.unitsPerSecond = unitsPerSecond;
+        this.burst = burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxRetries = maxRetries;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+
+        for (GmailOperation operation : GmailOperation.values()) {
+            unitsByOperation.put(operation, new LongAdder());
+        }
+    }
+
+    // ===============================
+    // Execução
+    // ===============================
+
+    /**
+     * Executa a requisição respeitando a cota e refazendo erros transitórios.
+     */
+    public <T> T execute(GmailOperation operation, AbstractGoogleClientRequest<T> request) throws IOException {
+        return call(operation, request::execute);
+    }
+
+    /**
+     * Como {@link #execute}, mas devolve a resposta HTTP sem interpretar o
+     * corpo, para lê-lo como stream. Quem chama deve fechar a resposta
+     * ({@link HttpResponse#disconnect()}).
+     */
+    public HttpResponse executeUnparsed(GmailOperation operation, AbstractGoogleClientRequest<?> request)
+            throws IOException {
+        return call(operation, request::executeUnparsed);
+    }
+
+    private <T> T call(GmailOperation operation, GmailCall<T> call) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            acquire(operation, 1);
+            long start = System.nanoTime();
+            try {
+                T result = call.run();
+                metrics.recordGmailCall(operation.name(), System.nanoTime() - start, 200);
+                return result;
+
+            } catch (GoogleJsonResponseException e) {
+                metrics.recordGmailCall(operation.name(), System.nanoTime() - start, e.getStatusCode());
+                boolean rateLimited = isRateLimited(e);
+                if (rateLimited) {
+                    rateLimitErrors.increment();
+                }
+                boolean transientError = operation.isRetryOnTransient() && TRANSIENT_STATUS.contains(e.getStatusCode());
+                if (!(rateLimited || transientError) || attempt >= maxRetries) {
+                    throw e;
+                }
+
+                long backoff = Math.max(backoffNanos(attempt), retryAfterNanos(e));
+                if (rateLimited) {
+                    pause(backoff);
+                }
+                retryAfter(operation, attempt, backoff, e.getStatusCode());
+
+            } catch (SocketTimeoutException e) {
+                metrics.recordGmailCall(operation.name(), System.nanoTime() - start, AssistantMetrics.STATUS_IO_ERROR);
+                if (!operation.isRetryOnTransient() || attempt >= maxRetries) {
+                    throw e;
+                }
+                retryAfter(operation, attempt, backoffNanos(attempt), 0);
+
+            } catch (IOException e) {
+                metrics.recordGmailCall(operation.name(), System.nanoTime() - start, AssistantMetrics.STATUS_IO_ERROR);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reserva {@code count} vezes o custo da operação (ex.: os itens de um
+     * batch), esperando a reposição do bucket quando necessário.
+     */
+    public void acquire(GmailOperation operation, int count) throws IOException {
+        int units = operation.getUnits() * count;
+        Bucket bucket = bucket();
+        long waitNanos;
+
+        bucket.lock.lock();
+        try {
+            long now = System.nanoTime();
+            bucket.refill(now);
+
+            double deficit = units - bucket.available;
+            long refillWait = deficit > 0 ? (long) (deficit * 1_000_000_000L / unitsPerSecond) : 0;
+            waitNanos = Math.max(refillWait, bucket.pausedUntil - now);
+
+            if (waitNanos > maxWaitNanos) {
+                rejected.increment();
+                throw new GmailQuotaExceededException("Cota da Gmail API esgotada; tente novamente em instantes");
+            }
+
+            bucket.available -= units;
+            bucket.record(units);
+        } finally {
+            bucket.lock.unlock();
+        }
+
+        unitsByOperation.get(operation).add(units);
+        if (waitNanos > 0) {
+            throttled.increment();
+            sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Sinaliza um limite recebido fora de {@link #execute} (ex.: item de um batch).
+     */
+    public void onRateLimited() {
+        rateLimitErrors.increment();
+        pause(backoffNanos(0));
+    }
+
+    public boolean isRateLimited(GoogleJsonError error) {
+        if (error == null) {
+            return false;
+        }
+        if (error.getCode() == 429) {
+            return true;
+        }
+        return error.getCode() == 403 && error.getErrors() != null
+                && error.getErrors().stream().anyMatch(info -> RATE_LIMIT_REASONS.contains(info.getReason()));
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    @FunctionalInterface
+    private interface GmailCall<T> {
+        T run() throws IOException;
+    }
+
+    private boolean isRateLimited(GoogleJsonResponseException e) {
+        return e.getStatusCode() == 429 || (e.getStatusCode() == 403 && isRateLimited(e.getDetails()));
+    }
+
+    private void retryAfter(GmailOperation operation, int attempt, long backoffNanos, int status) throws IOException {
+        retries.increment();
+        log.warn("⏳ {} falhou ({}), tentativa {}/{} em {} ms",
+                operation, status > 0 ? status : "timeout", attempt + 1, maxRetries, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+        sleep(backoffNanos);
+    }
+
+    // Backoff exponencial com "equal jitter": metade fixa, metade aleatória
+    private long backoffNanos(int attempt) {
+        long exponential = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt, 20));
+        long half = exponential / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private long retryAfterNanos(GoogleJsonResponseException e) {
+        if (e.getHeaders() == null) {
+            return 0;
+        }
+        String retryAfter = e.getHeaders().getFirstHeaderStringValue("Retry-After");
+        try {
+            return retryAfter != null ? TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim())) : 0;
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private void pause(long nanos) {
+        Bucket bucket = bucket();
+        bucket.lock.lock();
+        try {
+            bucket.pausedUntil = Math.max(bucket.pausedUntil, System.nanoTime() + nanos);
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    private Bucket bucket() {
+        return buckets.computeIfAbsent(GmailAccountContext.current(), accountId -> new Bucket());
+    }
+
+    private void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando a cota da Gmail API");
+        }
+    }
+
+    // ===============================
+    // Estatísticas
+    // ===============================
+
+    /**
+     * Uso da cota da conta atual; os contadores de tentativas e descartes
+     * são globais.
+     */
+    public QuotaStatsResponse stats() {
+        double availableNow;
+        long lastMinute = 0;
+        long pausedNanos;
+
+        Bucket bucket = bucket();
+        bucket.lock.lock();
+        try {
+            long now = System.nanoTime();
+            bucket.refill(now);
+            availableNow = bucket.available;
+            pausedNanos = Math.max(0, bucket.pausedUntil - now);
+
+            long second = System.currentTimeMillis() / 1000;
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                if (bucket.windowSeconds[i] > second - WINDOW_SECONDS) {
+                    lastMinute += bucket.windowUnits[i];
+                }
+            }
+        } finally {
+            bucket.lock.unlock();
+        }
+
+        Map<String, Long> byOperation = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<GmailOperation, LongAdder> entry : unitsByOperation.entrySet()) {
+            long units = entry.getValue().sum();
+            total += units;
+            if (units > 0) {
+                byOperation.put(entry.getKey().name(), units);
+            }
+        }
+
+        return new QuotaStatsResponse(
+                unitsPerSecond,
+                Math.round(availableNow * 10) / 10.0,
+                lastMinute,
+                total,
+                byOperation,
+                throttled.sum(),
+                rejected.sum(),
+                retries.sum(),
+                rateLimitErrors.sum(),
+                TimeUnit.NANOSECONDS.toMillis(pausedNanos)
+        );
+    }
+
+    /**
+     * Estado do token bucket de uma conta, protegido pelo próprio lock.
+     */
+    private final class Bucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private double available = burst;
+        private long lastRefill = System.nanoTime();
+        private long pausedUntil = lastRefill;
+        private final long[] windowUnits = new long[WINDOW_SECONDS];
+        private final long[] windowSeconds = new long[WINDOW_SECONDS];
+
+        private void refill(long now) {
+            double refilled = (now - lastRefill) * (double) unitsPerSecond / 1_000_000_000L;
+            available = Math.min(burst, available + refilled);
+            lastRefill = now;
+        }
+
+        private void record(int units) {
+            long second = System.currentTimeMillis() / 1000;
+            int slot = (int) (second % WINDOW_SECONDS);
+            if (windowSeconds[slot] != second) {
+                windowSeconds[slot] = second;
+                windowUnits[slot] = 0;
+            }
+            windowUnits[slot] += units;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.sistema.gmail.client;
+
+import java.util.List;
+
+import com.google.api.services.gmail.Gmail;
+
+/**
+ * Projeções usadas nas chamadas à Gmail API.
+ *
+ * Cada projeção define o {@code format}, os {@code metadataHeaders} e a
+ * máscara {@code fields} (partial response) de um {@code messages.get},
+ * para que cada tool baixe apenas o que realmente exibe.
+ */
+public enum MessageProjection {
+
+    // Linhas de listagem: remetente, assunto, datas, labels e prévia
+    LISTING("metadata", List.of("From", "Subject", "Date"), "id,labelIds,historyId,internalDate,snippet,payload/headers"),
+
+    // Leitura completa: cabeçalhos e árvore MIME com o corpo
+    DETAIL("full", List.of(), "id,labelIds,historyId,internalDate,payload");
+
+    // ===============================
+    // Máscaras das demais chamadas
+    // ===============================
+
+    public static final String LIST_FIELDS = "messages/id,nextPageToken";
+    public static final String MODIFY_FIELDS = "id,labelIds,historyId";
+    public static final String ID_FIELDS = "id";
+    public static final String PROFILE_FIELDS = "historyId";
+    public static final String PROFILE_ADDRESS_FIELDS = "emailAddress";
+    public static final String HISTORY_FIELDS = "history(id,messagesAdded/message(id,labelIds),"
+            + "messagesDeleted/message/id,labelsAdded/message(id,labelIds),labelsRemoved/message(id,labelIds)),"
+            + "historyId,nextPageToken";
+
+    private final String format;
+    private final List<String> metadataHeaders;
+    private final String fields;
+
+    MessageProjection(String format, List<String> metadataHeaders, String fields) {
+        this.format = format;
+        this.metadataHeaders = metadataHeaders;
+        this.fields = fields;
+    }
+
+    public Gmail.Users.Messages.Get applyTo(Gmail.Users.Messages.Get request) {
+        request.setFormat(format).setFields(fields);
+        if (!metadataHeaders.isEmpty()) {
+            request.setMetadataHeaders(metadataHeaders);
+        }
+        return request;
+    }
+}
@@ -1,11 +1,27 @@
 package br.com.sistema.gmail.config;
 
+import br.com.sistema.gmail.metrics.GeminiMetricsListener;
+import br.com.sistema.gmail.service.ChatSessionStore;
+import br.com.sistema.gmail.service.GmailAssistantService.GmailAiService;
+import br.com.sistema.gmail.tools.GmailToolExecutors;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
+import dev.langchain4j.service.AiServices;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @Slf4j
 public class AssistantConfig {
@@ -23,12 +39,18 @@ public class AssistantConfig {
     @Value("${spring.langchain4j.google-ai.gemini.temperature:0.7}")
     private Double temperature;
     
+    @Value("${gmail.tools.max-concurrency:8}")
+    private int toolMaxConcurrency;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
     // ===============================
     // Criar Bean GoogleAiGeminiChatModel
     // ===============================
     
     @Bean
-    public GoogleAiGeminiChatModel googleAiGeminiChatModel() {
+    public GoogleAiGeminiChatModel googleAiGeminiChatModel(GeminiMetricsListener metricsListener) {
         log.info("========================================");
         log.info("🤖 Inicializando GoogleAiGeminiChatModel");
         log.info("========================================");
@@ -47,6 +69,7 @@ public class AssistantConfig {
                     .apiKey(geminiApiKey)
                     .modelName(modelName)
                     .temperature(temperature)
+                    .listeners(List.of(metricsListener))
                     .build();
             
             log.info("✅ GoogleAiGeminiChatModel criado com sucesso!");
@@ -57,4 +80,72 @@ public class AssistantConfig {
             throw new RuntimeException("Falha ao criar GoogleAiGeminiChatModel", e);
         }
     }
-}
\ No newline at end of file
+    
+    // ===============================
+    // Criar Bean GoogleAiGeminiStreamingChatModel (chat via SSE)
+    // ===============================
+    
+    @Bean
+    public GoogleAiGeminiStreamingChatModel googleAiGeminiStreamingChatModel(GeminiMetricsListener metricsListener) {
+        log.info("🤖 Inicializando GoogleAiGeminiStreamingChatModel ({})", modelName);
+        
+        try {
+            return GoogleAiGeminiStreamingChatModel.builder()
+                    .apiKey(geminiApiKey)
+                    .modelName(modelName)
+                    .temperature(temperature)
+                    .listeners(List.of(metricsListener))
+                    .build();
+            
+        } catch (Exception e) {
+            log.error("❌ Erro ao criar GoogleAiGeminiStreamingChatModel: {}", e.getMessage(), e);
+            throw new RuntimeException("Falha ao criar GoogleAiGeminiStreamingChatModel", e);
+        }
+    }
+    
+    // ===============================
+    // Executor das tools (chamadas independentes no mesmo turno)
+    // ===============================
+    
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService toolExecutor() {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("gmail-tool-", 0).factory()
+                : Thread.ofPlatform().name("gmail-tool-", 0).daemon(true).factory();
+        
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                toolMaxConcurrency, toolMaxConcurrency,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    // ===============================
+    // Criar Bean GmailAiService
+    // ===============================
+    
+    /**
+     * Quando o Gemini pede várias tools na mesma resposta (ex.: markAsRead
+     * para 10 IDs), elas são executadas em paralelo no {@code toolExecutor}
+     * e os resultados voltam ao modelo na ordem original das chamadas.
+     */
+    @Bean
+    public GmailAiService gmailAiService(ChatModel chatModel,
+                                         StreamingChatModel streamingChatModel,
+                                         GmailToolExecutors toolExecutors,
+                                         ChatSessionStore sessionStore,
+                                         @Qualifier("toolExecutor") ExecutorService toolExecutor) {
+        log.info("🧰 Tools executadas em paralelo (máx. {} simultâneas)", toolMaxConcurrency);
+        
+        return AiServices.builder(GmailAiService.class)
+                .chatModel(chatModel)
+                .streamingChatModel(streamingChatModel)
+                .tools(toolExecutors.executors())
+                .chatMemoryProvider(sessionStore)
+                .executeToolsConcurrently(toolExecutor)
+                .build();
+    }
+}
@@ -65,6 +65,8 @@ public class CorsConfig {
                 "Accept",
                 "X-Requested-With",
                 "X-API-Key",
+                "X-Gmail-Account",     // Conta Gmail da requisição
+                "If-None-Match",       // Revalidação por ETag
                 "Cache-Control"
         ));
         
@@ -76,7 +78,8 @@ public class CorsConfig {
                 "Authorization",
                 "X-Total-Emails",      // Total de emails
                 "X-Unread-Count",      // Emails não lidos
-                "X-Page-Number"
+                "X-Page-Number",
+                "ETag"                 // historyId da caixa (endpoints /emails)
         ));
         
         // ============================================
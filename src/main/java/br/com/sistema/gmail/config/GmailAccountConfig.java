@@ -0,0 +1,64 @@
+package br.com.sistema.gmail.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import br.com.sistema.gmail.client.GmailAccountRegistry;
+import br.com.sistema.gmail.client.GmailAccountRegistry.GmailAccount;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@EnableConfigurationProperties(GmailAccountsProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class GmailAccountConfig implements WebMvcConfigurer {
+    
+    private final GmailAccountRegistry accountRegistry;
+
+    @Value("${gmail.security.require-api-key:true}")
+    private boolean requireApiKey;
+    
+    // ====================================
+    // Resolve a conta Gmail de cada requisição (headers X-API-Key e X-Gmail-Account)
+    // ====================================
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // O push do Pub/Sub não envia o header: a conta vem do emailAddress da notificação.
+        // O health check não toca em nenhuma conta e é usado por load balancers sem chave
+        registry.addInterceptor(new GmailAccountInterceptor(accountRegistry, requireApiKey))
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/v1/gmail/push", "/api/v1/gmail/health");
+    }
+
+    /**
+     * Com a API key exigida e nenhuma conta com chave, toda chamada receberia
+     * 401: falha na inicialização com a correção em vez de subir inacessível.
+     */
+    @PostConstruct
+    void checkApiKeys() {
+        if (!requireApiKey) {
+            log.warn("⚠️ gmail.security.require-api-key=false: qualquer cliente acessa qualquer conta pelo header X-Gmail-Account");
+            return;
+        }
+        boolean anyKey = false;
+        for (String accountId : accountRegistry.accountIds()) {
+            GmailAccount account = accountRegistry.resolve(accountId);
+            if (account.hasApiKey()) {
+                anyKey = true;
+            } else {
+                log.warn("⚠️ Conta {} sem API key: inacessível pela API", accountId);
+            }
+        }
+        if (!anyKey) {
+            throw new IllegalStateException("gmail.security.require-api-key=true, mas nenhuma conta tem API key: "
+                    + "defina GMAIL_API_KEY (conta default) ou gmail.accounts.<conta>.api-key, "
+                    + "ou desligue a exigência com gmail.security.require-api-key=false");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.sistema.gmail.config;
+
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.client.GmailAccountRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Define a {@link GmailAccountContext} a partir do header
+ * {@value #ACCOUNT_HEADER}, restrita às contas liberadas para a API key
+ * do header {@value #API_KEY_HEADER}.
+ *
+ * Sem o header de conta, usa a conta padrão, ou a única conta da chave.
+ * Chave ausente ou inválida responde 401; conta fora das liberadas, 403.
+ * Com {@code gmail.security.require-api-key=false} (só desenvolvimento), o
+ * header de conta basta.
+ */
+@RequiredArgsConstructor
+public class GmailAccountInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String ACCOUNT_HEADER = "X-Gmail-Account";
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final String SCOPE_ATTRIBUTE = GmailAccountInterceptor.class.getName() + ".scope";
+
+    private final GmailAccountRegistry accountRegistry;
+    private final boolean requireApiKey;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        Set<String> allowed = requireApiKey
+                ? accountRegistry.accountsFor(request.getHeader(API_KEY_HEADER))
+                : accountRegistry.accountIds();
+
+        if (requireApiKey && allowed.isEmpty()) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "API key ausente ou inválida");
+            return false;
+        }
+
+        String header = request.getHeader(ACCOUNT_HEADER);
+        String accountId = header != null && !header.isBlank() ? header.trim() : defaultAccount(allowed);
+
+        if (!allowed.contains(accountId)) {
+            if (requireApiKey) {
+                response.sendError(HttpStatus.FORBIDDEN.value(), "Conta Gmail não liberada para esta API key: " + accountId);
+            } else {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Conta Gmail não configurada: " + accountId);
+            }
+            return false;
+        }
+
+        request.setAttribute(SCOPE_ATTRIBUTE, GmailAccountContext.open(accountId));
+        return true;
+    }
+
+    private String defaultAccount(Set<String> allowed) {
+        if (allowed.size() == 1 && !allowed.contains(GmailAccountContext.DEFAULT_ACCOUNT)) {
+            return allowed.iterator().next();
+        }
+        return GmailAccountContext.DEFAULT_ACCOUNT;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        closeScope(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        closeScope(request);
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) instanceof GmailAccountContext.Scope scope) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.sistema.gmail.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Contas adicionais do Gmail, além da conta padrão ({@code gmail.client-id}...).
+ *
+ * <pre>
+ * gmail.accounts.financeiro.client-id=...
+ * gmail.accounts.financeiro.client-secret=...
+ * gmail.accounts.financeiro.refresh-token=...
+ * gmail.accounts.financeiro.api-key=...
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "gmail")
+public record GmailAccountsProperties(Map<String, Credentials> accounts) {
+
+    public GmailAccountsProperties {
+        accounts = accounts != null ? Map.copyOf(accounts) : Map.of();
+    }
+
+    /**
+     * @param apiKey chave exigida no header {@code X-API-Key} para usar a conta
+     */
+    public record Credentials(String clientId, String clientSecret, String refreshToken, String apiKey) {}
+}
@@ -1,9 +1,12 @@
 package br.com.sistema.gmail.config;
 
+import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.oas.models.servers.Server;
 import io.swagger.v3.oas.models.tags.Tag;
 import org.springframework.context.annotation.Bean;
@@ -23,6 +26,8 @@ import java.util.List;
  */
 @Configuration
 public class OpenApiConfig {
+
+    private static final String API_KEY_SCHEME = "apiKey";
     
     @Bean
     public OpenAPI customOpenAPI() {
@@ -61,6 +66,9 @@ public class OpenApiConfig {
                                 Requer autenticação OAuth2 com Gmail API.
                                 Configure `credentials.json` em `src/main/resources/`.
                                 
+                                Cada requisição envia a API key da conta no header `X-API-Key`;
+                                `X-Gmail-Account` escolhe entre as contas liberadas para a chave.
+                                
                                 ## 📚 Documentação
                                 
                                 Para mais informações, visite o [GitHub](https://github.com/seu-usuario/spring-ai-gmail-assistant)
@@ -80,6 +88,12 @@ public class OpenApiConfig {
                                 .url("https://gmail-assistant.sua-empresa.com")
                                 .description("🌐 Servidor de Produção")
                 ))
+                .components(new Components()
+                        .addSecuritySchemes(API_KEY_SCHEME, new SecurityScheme()
+                                .type(SecurityScheme.Type.APIKEY)
+                                .in(SecurityScheme.In.HEADER)
+                                .name(GmailAccountInterceptor.API_KEY_HEADER)))
+                .addSecurityItem(new SecurityRequirement().addList(API_KEY_SCHEME))
                 .tags(List.of(
                         new Tag()
                                 .name("Gmail Assistant")
@@ -0,0 +1,14 @@
+package br.com.sistema.gmail.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    
+    // ====================================
+    // Habilita tarefas agendadas (@Scheduled)
+    // - Sincronização incremental da caixa de entrada
+    // ====================================
+}
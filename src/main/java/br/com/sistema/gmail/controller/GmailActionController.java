@@ -0,0 +1,181 @@
+package br.com.sistema.gmail.controller;
+
+import br.com.sistema.gmail.dtos.request.BulkActionRequest;
+import br.com.sistema.gmail.dtos.response.AssistantResponse;
+import br.com.sistema.gmail.tools.GmailAssistantTools;
+import br.com.sistema.gmail.tools.ToolOutcome;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Endpoints estruturados que executam as operações do Gmail diretamente,
+ * sem passar pelo LLM.
+ *
+ * O chat em linguagem natural continua em {@code /api/v1/gmail/chat};
+ * aqui cada operação chama a tool correspondente de forma determinística.
+ */
+@RestController
+@RequestMapping("/api/v1/gmail/actions")
+@RequiredArgsConstructor
+@Slf4j
+public class GmailActionController {
+
+    private final GmailAssistantTools gmailTools;
+
+    // ============================================
+    // LISTAGEM E BUSCA
+    // ============================================
+
+    @GetMapping("/emails")
+    @Tag(name = "Emails")
+    @Operation(summary = "Listar emails", description = "Lista os últimos emails da caixa de entrada")
+    @ApiResponse(responseCode = "200", description = "Emails listados")
+    public ResponseEntity<AssistantResponse> listEmails(
+            @Parameter(description = "Quantidade máxima de emails", example = "10")
+            @RequestParam(defaultValue = "10") Integer maxResults) {
+
+        return toResponse("Listar emails", "list", gmailTools.listEmailsOutcome(maxResults));
+    }
+
+    @GetMapping("/emails/unread")
+    @Tag(name = "Emails")
+    @Operation(summary = "Listar não lidos", description = "Lista os emails não lidos da caixa de entrada")
+    @ApiResponse(responseCode = "200", description = "Emails não lidos listados")
+    public ResponseEntity<AssistantResponse> listUnreadEmails(
+            @Parameter(description = "Quantidade máxima de emails", example = "10")
+            @RequestParam(defaultValue = "10") Integer maxResults) {
+
+        return toResponse("Listar não lidos", "list", gmailTools.listUnreadEmailsOutcome(maxResults));
+    }
+
+    @GetMapping("/emails/search")
+    @Tag(name = "Busca")
+    @Operation(summary = "Buscar emails", description = "Busca emails por palavra-chave ou sintaxe de busca do Gmail")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Busca realizada"),
+        @ApiResponse(responseCode = "400", description = "Consulta vazia")
+    })
+    public ResponseEntity<AssistantResponse> searchEmails(
+            @Parameter(description = "Termos da busca", example = "projeto")
+            @RequestParam String query,
+            @Parameter(description = "Quantidade máxima de emails", example = "10")
+            @RequestParam(defaultValue = "10") Integer maxResults) {
+
+        if (query == null || query.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(AssistantResponse.error("Buscar emails", "Consulta não pode ser vazia"));
+        }
+
+        return toResponse("Buscar emails: " + query, "search", gmailTools.searchEmailsOutcome(query, maxResults));
+    }
+
+    @GetMapping("/emails/{emailId}")
+    @Tag(name = "Emails")
+    @Operation(summary = "Ler email", description = "Obtém o conteúdo completo de um email")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email encontrado"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<AssistantResponse> getEmail(@PathVariable String emailId) {
+        return toResponse("Ler email " + emailId, "read", gmailTools.getEmailContentOutcome(emailId));
+    }
+
+    // ============================================
+    // ORGANIZAÇÃO
+    // ============================================
+
+    @PutMapping("/emails/{emailId}/read")
+    @Tag(name = "Organização")
+    @Operation(summary = "Marcar como lido")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email marcado como lido"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<AssistantResponse> markAsRead(@PathVariable String emailId) {
+        return toResponse("Marcar como lido " + emailId, "modify", gmailTools.markAsReadOutcome(emailId));
+    }
+
+    @PutMapping("/emails/{emailId}/unread")
+    @Tag(name = "Organização")
+    @Operation(summary = "Marcar como não lido")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email marcado como não lido"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<AssistantResponse> markAsUnread(@PathVariable String emailId) {
+        return toResponse("Marcar como não lido " + emailId, "modify", gmailTools.markAsUnreadOutcome(emailId));
+    }
+
+    @PutMapping("/emails/{emailId}/trash")
+    @Tag(name = "Organização")
+    @Operation(summary = "Mover para lixeira")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email movido para lixeira"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<AssistantResponse> trashEmail(@PathVariable String emailId) {
+        return toResponse("Mover para lixeira " + emailId, "trash", gmailTools.trashEmailOutcome(emailId));
+    }
+
+    @DeleteMapping("/emails/{emailId}")
+    @Tag(name = "Organização")
+    @Operation(summary = "Deletar permanentemente")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email deletado"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado"),
+        @ApiResponse(responseCode = "504", description = "Gmail não confirmou a exclusão: liste antes de repetir")
+    })
+    public ResponseEntity<AssistantResponse> deleteEmail(@PathVariable String emailId) {
+        return toResponse("Deletar email " + emailId, "delete", gmailTools.deleteEmailOutcome(emailId));
+    }
+
+    @PostMapping("/emails/bulk")
+    @Tag(name = "Organização")
+    @Operation(summary = "Ação em massa",
+               description = "Aplica MARK_READ, MARK_UNREAD, TRASH ou DELETE a uma lista de IDs ou a todos os emails de uma busca do Gmail")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ação aplicada"),
+        @ApiResponse(responseCode = "400", description = "Informe a ação e apenas IDs ou apenas a busca")
+    })
+    public ResponseEntity<AssistantResponse> bulkAction(@RequestBody BulkActionRequest request) {
+        if (!request.isValid()) {
+            return ResponseEntity.badRequest()
+                    .body(AssistantResponse.error("Ação em massa", "Informe a ação e apenas 'ids' ou apenas 'query'"));
+        }
+
+        String question = "Ação em massa " + request.action();
+        ToolOutcome result = request.byQuery()
+                ? gmailTools.bulkActionByQueryOutcome(request.query(), request.action())
+                : gmailTools.bulkActionByIdsOutcome(request.ids(), request.action());
+
+        return toResponse(question, "bulk", result);
+    }
+
+    // ============================================
+    // AUXILIARES
+    // ============================================
+
+    // O status HTTP sai do desfecho tipado da tool, não do texto
+    static ResponseEntity<AssistantResponse> toResponse(String question, String type, ToolOutcome result) {
+        if (result.isOk()) {
+            return ResponseEntity.ok(AssistantResponse.direct(question, type, result.text()));
+        }
+        HttpStatus status = switch (result.status()) {
+            case INVALID -> HttpStatus.BAD_REQUEST;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            // Pode ter sido aplicada: o cliente precisa conferir antes de repetir
+            case UNCONFIRMED -> HttpStatus.GATEWAY_TIMEOUT;
+            default -> HttpStatus.BAD_GATEWAY;
+        };
+        log.warn("⚠️ {} falhou ({}): {}", question, result.status(), result.text());
+        return ResponseEntity.status(status).body(AssistantResponse.error(question, result.text()));
+    }
+}
@@ -1,9 +1,20 @@
 package br.com.sistema.gmail.controller;
 
+import br.com.sistema.gmail.client.GmailMessageCache;
+import br.com.sistema.gmail.client.GmailRateLimiter;
 import br.com.sistema.gmail.dtos.request.GmailChatRequest;
 import br.com.sistema.gmail.dtos.request.SendEmailRequest;
 import br.com.sistema.gmail.dtos.response.AssistantResponse;
+import br.com.sistema.gmail.dtos.response.CacheStatsResponse;
+import br.com.sistema.gmail.dtos.response.ChatSessionStatsResponse;
+import br.com.sistema.gmail.dtos.response.QuotaStatsResponse;
+import br.com.sistema.gmail.dtos.response.ResponseCacheStatsResponse;
+import br.com.sistema.gmail.service.ChatResponseCache;
+import br.com.sistema.gmail.service.ChatSessionStore;
 import br.com.sistema.gmail.service.GmailAssistantService;
+import br.com.sistema.gmail.service.GmailStreamingService;
+import br.com.sistema.gmail.tools.GmailAssistantTools;
+import br.com.sistema.gmail.tools.ToolOutcome;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -13,8 +24,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/gmail")
@@ -24,6 +37,12 @@ import org.springframework.web.bind.annotation.*;
 public class GmailController {
     
     private final GmailAssistantService assistantService;
+    private final GmailStreamingService streamingService;
+    private final GmailMessageCache messageCache;
+    private final GmailRateLimiter rateLimiter;
+    private final GmailAssistantTools gmailTools;
+    private final ChatSessionStore sessionStore;
+    private final ChatResponseCache responseCache;
     
     @PostMapping("/chat")
     @Operation(
@@ -67,7 +86,7 @@ public class GmailController {
         }
         
         try {
-            String response = assistantService.processMessage(request.message());
+            String response = assistantService.processMessage(request.sessionId(), request.message());
             return ResponseEntity.ok(AssistantResponse.success(request.message(), response));
             
         } catch (Exception e) {
@@ -80,10 +99,43 @@ public class GmailController {
         }
     }
     
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Chat com assistente Gmail (streaming)",
+        description = """
+            Mesmo comportamento do /chat, mas a resposta chega via Server-Sent Events:
+            eventos `token` com partes do texto, `tool` e `tool-done` com o progresso
+            das operações no Gmail, e `done` ou `error` ao final.
+            """
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Stream de eventos iniciado",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Request inválido"
+        )
+    })
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody GmailChatRequest request) {
+        log.info("📡 Chat em streaming recebido");
+        
+        if (!request.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(streamingService.stream(request.sessionId(), request.message()));
+    }
+    
     @PostMapping("/send")
     @Operation(
         summary = "Enviar email",
-        description = "Envia um email diretamente sem usar chat"
+        description = "Envia um email diretamente, sem passar pelo LLM"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -93,6 +145,14 @@ public class GmailController {
         @ApiResponse(
             responseCode = "400",
             description = "Request inválido"
+        ),
+        @ApiResponse(
+            responseCode = "502",
+            description = "Gmail recusou o envio"
+        ),
+        @ApiResponse(
+            responseCode = "504",
+            description = "Gmail não confirmou o envio: confira a pasta Enviados antes de repetir"
         )
     })
     public ResponseEntity<AssistantResponse> sendEmail(@RequestBody SendEmailRequest request) {
@@ -107,13 +167,10 @@ public class GmailController {
         }
         
         try {
-            String prompt = String.format(
-                    "Envie um email para %s com assunto '%s' e corpo '%s'",
-                    request.to(), request.subject(), request.body()
-            );
+            // Operação estruturada: executa a tool diretamente, sem passar pelo LLM
+            ToolOutcome outcome = gmailTools.sendEmailOutcome(request.to(), request.subject(), request.body());
             
-            String response = assistantService.processMessage(prompt);
-            return ResponseEntity.ok(AssistantResponse.success("Enviar email", response));
+            return GmailActionController.toResponse("Enviar email", "send", outcome);
             
         } catch (Exception e) {
             log.error("❌ Erro ao enviar email", e);
@@ -125,6 +182,72 @@ public class GmailController {
         }
     }
     
+    @GetMapping("/cache/stats")
+    @Operation(
+        summary = "Estatísticas do cache",
+        description = "Retorna acertos, faltas e ocupação do cache de mensagens"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Estatísticas do cache"
+    )
+    public ResponseEntity<CacheStatsResponse> cacheStats() {
+        return ResponseEntity.ok(messageCache.stats());
+    }
+    
+    @GetMapping("/quota/stats")
+    @Operation(
+        summary = "Uso da cota da Gmail API",
+        description = "Retorna units disponíveis, consumo recente e chamadas limitadas ou refeitas"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Uso da cota"
+    )
+    public ResponseEntity<QuotaStatsResponse> quotaStats() {
+        return ResponseEntity.ok(rateLimiter.stats());
+    }
+    
+    @GetMapping("/chat/cache/stats")
+    @Operation(
+        summary = "Estatísticas do cache de respostas",
+        description = "Retorna acertos, faltas e respostas não cacheadas do chat"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Estatísticas do cache de respostas"
+    )
+    public ResponseEntity<ResponseCacheStatsResponse> responseCacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+    
+    @GetMapping("/chat/sessions/stats")
+    @Operation(
+        summary = "Estatísticas das sessões",
+        description = "Retorna sessões ativas e memória estimada por sessão"
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Estatísticas das sessões de chat"
+    )
+    public ResponseEntity<ChatSessionStatsResponse> sessionStats() {
+        return ResponseEntity.ok(sessionStore.stats());
+    }
+    
+    @DeleteMapping("/chat/sessions/{sessionId}")
+    @Operation(
+        summary = "Encerrar sessão",
+        description = "Descarta a memória de uma conversa"
+    )
+    @ApiResponse(
+        responseCode = "204",
+        description = "Sessão encerrada"
+    )
+    public ResponseEntity<Void> endSession(@PathVariable String sessionId) {
+        assistantService.endSession(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/health")
     @Operation(
         summary = "Health check",
@@ -0,0 +1,366 @@
+package br.com.sistema.gmail.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageFetcher;
+import br.com.sistema.gmail.client.GmailQuotaExceededException;
+import br.com.sistema.gmail.client.MessageProjection;
+import br.com.sistema.gmail.config.GmailAccountInterceptor;
+import br.com.sistema.gmail.dtos.response.AssistantResponse;
+import br.com.sistema.gmail.dtos.response.AttachmentResponse;
+import br.com.sistema.gmail.dtos.response.EmailDetailResponse;
+import br.com.sistema.gmail.dtos.response.EmailListResponse;
+import br.com.sistema.gmail.dtos.response.EmailListResponse.EmailInfo;
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.mapper.MimeBodyExtractor;
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.service.EmailListingService;
+import br.com.sistema.gmail.service.GmailAttachmentService;
+import br.com.sistema.gmail.service.GmailAttachmentService.Attachment;
+import br.com.sistema.gmail.service.MailboxSyncService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.services.gmail.model.Message;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Endpoints de emails com respostas tipadas, lidos direto da Gmail API.
+ *
+ * Diferente de {@code /api/v1/gmail/actions}, que devolve o texto das tools,
+ * aqui as respostas usam os DTOs de {@code dtos.response}.
+ *
+ * Listagens e detalhe levam um ETag forte com o {@code historyId} da caixa:
+ * qualquer alteração no Gmail muda o historyId, então um
+ * {@code If-None-Match} igual ao atual recebe 304 sem buscar mensagens
+ * (custa só a leitura do perfil).
+ *
+ * O historyId do ETag é lido antes do corpo e registrado no cache de
+ * mensagens, que a partir daí só serve entradas lidas nesse historyId ou
+ * depois dele: o corpo nunca é mais antigo que o ETag que o acompanha.
+ */
+@RestController
+@RequestMapping("/api/v1/gmail/emails")
+@RequiredArgsConstructor
+@Slf4j
+public class GmailEmailController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Emails escritos entre flushes do stream
+    private static final int FLUSH_EVERY = 50;
+    private static final int MAX_LISTING = 100;
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageFetcher messageFetcher;
+    private final MimeBodyExtractor bodyExtractor;
+    private final MailboxSyncService mailboxSync;
+    private final EmailListingService listingService;
+    private final GmailAttachmentService attachmentService;
+    private final EmailMapper emailMapper;
+    private final ObjectMapper objectMapper;
+
+    // ============================================
+    // LISTAGEM E DETALHE
+    // ============================================
+
+    @GetMapping
+    @Tag(name = "Emails")
+    @Operation(summary = "Listar emails (JSON)", description = "Últimos emails da caixa de entrada; aceita If-None-Match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Emails listados"),
+        @ApiResponse(responseCode = "304", description = "Caixa sem alterações desde o ETag informado")
+    })
+    public ResponseEntity<EmailListResponse> listEmails(
+            @Parameter(description = "Quantidade máxima de emails (até 100)", example = "20")
+            @RequestParam(defaultValue = "20") Integer maxResults,
+            WebRequest request) throws IOException {
+
+        return list("in:inbox", email -> true, maxResults, request);
+    }
+
+    @GetMapping("/unread")
+    @Tag(name = "Emails")
+    @Operation(summary = "Listar não lidos (JSON)", description = "Emails não lidos da caixa de entrada; aceita If-None-Match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Emails não lidos listados"),
+        @ApiResponse(responseCode = "304", description = "Caixa sem alterações desde o ETag informado")
+    })
+    public ResponseEntity<EmailListResponse> listUnreadEmails(
+            @Parameter(description = "Quantidade máxima de emails (até 100)", example = "20")
+            @RequestParam(defaultValue = "20") Integer maxResults,
+            WebRequest request) throws IOException {
+
+        return list("is:unread in:inbox", email -> Boolean.TRUE.equals(email.getNaoLido()), maxResults, request);
+    }
+
+    @GetMapping("/{emailId}")
+    @Tag(name = "Emails")
+    @Operation(summary = "Ler email (JSON)", description = "Conteúdo completo de um email; aceita If-None-Match")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Email encontrado"),
+        @ApiResponse(responseCode = "304", description = "Caixa sem alterações desde o ETag informado"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<EmailDetailResponse> getEmail(@PathVariable String emailId, WebRequest request)
+            throws IOException {
+
+        String etag = etag(mailboxSync.currentHistoryId());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        // Lido depois do historyId: uma cópia em cache anterior a ele é buscada de novo
+        Message message = messageFetcher.fetchOne(clientProvider.getGmailService(), emailId, MessageProjection.DETAIL);
+        String body = bodyExtractor.extract(message);
+        mailboxSync.indexBody(emailId, body);
+
+        return conditional(etag).body(emailMapper.toEmailDetail(emailMapper.toEmail(message), body));
+    }
+
+    // ============================================
+    // ANEXOS
+    // ============================================
+
+    @GetMapping("/{emailId}/attachments")
+    @Tag(name = "Anexos")
+    @Operation(summary = "Listar anexos", description = "Anexos de um email, com a URL de download de cada um")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Anexos listados"),
+        @ApiResponse(responseCode = "404", description = "Email não encontrado")
+    })
+    public ResponseEntity<List<AttachmentResponse>> listAttachments(@PathVariable String emailId) throws IOException {
+        List<AttachmentResponse> attachments = attachmentService.list(emailId).stream()
+                .map(attachment -> new AttachmentResponse(attachment.partId(), attachment.filename(),
+                        attachment.mimeType(), attachment.size(), downloadUrl(emailId, attachment)))
+                .toList();
+
+        return ResponseEntity.ok(attachments);
+    }
+
+    @GetMapping("/{emailId}/attachments/{partId}")
+    @Tag(name = "Anexos")
+    @Operation(
+        summary = "Baixar anexo",
+        description = "Envia o anexo em stream, decodificado à medida que chega da Gmail API; aceita Range (um intervalo)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Anexo completo"),
+        @ApiResponse(responseCode = "206", description = "Intervalo solicitado"),
+        @ApiResponse(responseCode = "404", description = "Email ou anexo não encontrado"),
+        @ApiResponse(responseCode = "416", description = "Intervalo fora do anexo")
+    })
+    public ResponseEntity<StreamingResponseBody> downloadAttachment(
+            @PathVariable String emailId,
+            @PathVariable String partId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader) throws IOException {
+
+        Attachment attachment = attachmentService.find(emailId, partId).orElse(null);
+        if (attachment == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long size = attachment.size();
+        long start = 0;
+        long end = size > 0 ? size - 1 : Long.MAX_VALUE;
+        boolean partial = false;
+
+        // Vários intervalos (multipart/byteranges) não são suportados: o anexo vai inteiro
+        List<HttpRange> ranges = parseRanges(rangeHeader);
+        if (ranges == null || (ranges.size() == 1 && (size == 0 || ranges.get(0).getRangeStart(size) >= size))) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+            partial = true;
+        }
+
+        String account = GmailAccountContext.current();
+        long first = start;
+        long last = end;
+        StreamingResponseBody body = output -> {
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(account)) {
+                attachmentService.write(emailId, attachment, first, last, output);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(mediaTypeOf(attachment))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(attachment.filename(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .header("X-Content-Type-Options", "nosniff");
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        if (size > 0) {
+            response.contentLength(end - start + 1);
+        }
+        return response.body(body);
+    }
+
+    // ============================================
+    // STREAMING
+    // ============================================
+
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @Tag(name = "Emails")
+    @Operation(
+        summary = "Exportar listagem em NDJSON",
+        description = "Percorre todas as páginas da busca no Gmail e envia um EmailInfo por linha "
+                + "à medida que cada página chega; a memória usada não depende do tamanho da listagem"
+    )
+    @ApiResponse(responseCode = "200", description = "Uma linha JSON por email")
+    public ResponseEntity<StreamingResponseBody> stream(
+            @Parameter(description = "Busca do Gmail", example = "in:inbox")
+            @RequestParam(defaultValue = "in:inbox") String q,
+            @Parameter(description = "Quantidade máxima de emails (padrão: todos)", example = "1000")
+            @RequestParam(required = false) Long limit) {
+
+        // O corpo é escrito em outra thread: leva a conta da requisição junto
+        String account = GmailAccountContext.current();
+        long max = limit != null && limit > 0 ? limit : Long.MAX_VALUE;
+
+        StreamingResponseBody body = output -> {
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(account)) {
+                OutputStream out = new BufferedOutputStream(output);
+                int[] number = {0};
+
+                listingService.stream(q, max, email -> {
+                    out.write(objectMapper.writeValueAsBytes(emailMapper.toEmailInfo(email, ++number[0])));
+                    out.write('\n');
+                    if (number[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                });
+                out.flush();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    // ============================================
+    // ERROS DA GMAIL API
+    // ============================================
+
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<AssistantResponse> handleGmailError(IOException e, WebRequest request) {
+        HttpStatus status = HttpStatus.BAD_GATEWAY;
+        if (e instanceof GmailQuotaExceededException) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else if (e instanceof GoogleJsonResponseException google && google.getStatusCode() == 404) {
+            status = HttpStatus.NOT_FOUND;
+        }
+
+        log.error("❌ Erro na Gmail API ({}): {}", status.value(), e.getMessage());
+        return ResponseEntity.status(status)
+                .body(AssistantResponse.error(request.getDescription(false), e.getMessage()));
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    /**
+     * Listagem pela réplica local quando ela está no historyId atual, senão
+     * direto do Gmail; o ETag é verificado antes de buscar qualquer mensagem.
+     */
+    private ResponseEntity<EmailListResponse> list(String query, Predicate<Email> filter, Integer maxResults,
+                                                   WebRequest request) throws IOException {
+
+        BigInteger historyId = mailboxSync.currentHistoryId();
+        String etag = etag(historyId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        int limit = maxResults != null && maxResults > 0 ? Math.min(maxResults, MAX_LISTING) : 20;
+
+        // A réplica só serve se já estiver nesse historyId; senão o ETag descreveria dados antigos
+        List<Email> emails = historyId.equals(mailboxSync.getState().getHistoryId())
+                ? mailboxSync.findLocal(limit, filter).orElse(null)
+                : null;
+        if (emails == null) {
+            emails = listingService.page(query, null, 0, limit).emails();
+        }
+
+        List<EmailInfo> infos = new ArrayList<>(emails.size());
+        int unread = 0;
+        for (Email email : emails) {
+            infos.add(emailMapper.toEmailInfo(email, infos.size() + 1));
+            if (Boolean.TRUE.equals(email.getNaoLido())) {
+                unread++;
+            }
+        }
+
+        return conditional(etag).body(new EmailListResponse(infos.size(), unread, infos));
+    }
+
+    // Lista vazia sem header; null se o header for inválido
+    private List<HttpRange> parseRanges(String header) {
+        if (header == null || header.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private MediaType mediaTypeOf(Attachment attachment) {
+        try {
+            return MediaType.parseMediaType(attachment.mimeType());
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private String downloadUrl(String emailId, Attachment attachment) {
+        return "/api/v1/gmail/emails/" + emailId + "/attachments/" + attachment.partId();
+    }
+
+    // A mesma URL muda de conteúdo conforme a conta: ela entra no ETag e no Vary
+    private String etag(BigInteger historyId) {
+        return "\"" + GmailAccountContext.current() + "-" + historyId + "\"";
+    }
+
+    private ResponseEntity.BodyBuilder conditional(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, GmailAccountInterceptor.ACCOUNT_HEADER);
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.sistema.gmail.controller;
+
+import java.util.Base64;
+
+import br.com.sistema.gmail.dtos.request.PubSubPushRequest;
+import br.com.sistema.gmail.dtos.request.PubSubPushRequest.GmailNotification;
+import br.com.sistema.gmail.service.PushNotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Endpoint de push da assinatura do Cloud Pub/Sub ligada ao
+ * {@code users.watch} do Gmail.
+ *
+ * Responde 204 assim que a notificação é registrada; a sincronização roda
+ * depois, agrupando rajadas. Qualquer resposta fora de 2xx faz o Pub/Sub
+ * reenviar a mensagem.
+ */
+@RestController
+@RequestMapping("/api/v1/gmail/push")
+@RequiredArgsConstructor
+@Slf4j
+public class GmailPushController {
+
+    private final PushNotificationService pushService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping
+    @Tag(name = "Push")
+    @Operation(
+        summary = "Notificação push do Gmail",
+        description = "Recebe a mensagem do Pub/Sub ({emailAddress, historyId} em message.data) e agenda a "
+                + "sincronização incremental daquela caixa"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Notificação registrada"),
+        @ApiResponse(responseCode = "400", description = "Mensagem sem notificação válida"),
+        @ApiResponse(responseCode = "403", description = "Token de verificação inválido"),
+        @ApiResponse(responseCode = "404", description = "Push desabilitado")
+    })
+    public ResponseEntity<Void> receive(
+            @Parameter(description = "Token configurado na URL da assinatura (gmail.push.verification-token)")
+            @RequestParam(required = false) String token,
+            @RequestBody PubSubPushRequest request) {
+
+        if (!pushService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!pushService.isAuthorized(token)) {
+            log.warn("⚠️ Notificação push com token inválido");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request == null || !request.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        GmailNotification notification;
+        try {
+            notification = objectMapper.readValue(Base64.getDecoder().decode(request.message().data()),
+                    GmailNotification.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Notificação push inválida ({}): {}", request.message().messageId(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.debug("📨 Push {}: {} historyId {}", request.message().messageId(),
+                notification.emailAddress(), notification.historyId());
+        pushService.onNotification(notification.emailAddress(), notification.historyId());
+
+        return ResponseEntity.noContent().build();
+    }
+}
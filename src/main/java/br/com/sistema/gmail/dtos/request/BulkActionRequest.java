@@ -0,0 +1,30 @@
+package br.com.sistema.gmail.dtos.request;
+
+import java.util.List;
+
+import br.com.sistema.gmail.service.BulkAction;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Request para ação em massa (por IDs ou por busca do Gmail)")
+public record BulkActionRequest(
+        
+    @Schema(description = "Ação a aplicar", example = "MARK_READ", required = true)
+    BulkAction action,
+    
+    @Schema(description = "IDs dos emails (alternativa à busca)", example = "[\"18c2f1a9b3d4e5f6\"]")
+    List<String> ids,
+    
+    @Schema(description = "Busca do Gmail (alternativa aos IDs)", example = "is:unread in:inbox")
+    String query
+    
+) {
+    public boolean isValid() {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasQuery = query != null && !query.trim().isEmpty();
+        return action != null && hasIds != hasQuery;
+    }
+    
+    public boolean byQuery() {
+        return query != null && !query.trim().isEmpty();
+    }
+}
@@ -10,10 +10,17 @@ public record GmailChatRequest(
         example = "Liste meus últimos 10 emails",
         required = true
     )
-    String message
+    String message,
+    
+    @Schema(
+        description = "Identificador da conversa; permite continuar de onde parou (ex.: \"abra o terceiro\"). Opcional",
+        example = "4f7c2a1e-9b3d-4c8e-a5f0-1d2e3f4a5b6c"
+    )
+    String sessionId
     
 ) {
     public boolean isValid() {
-        return message != null && !message.trim().isEmpty();
+        return message != null && !message.trim().isEmpty()
+                && (sessionId == null || sessionId.length() <= 128);
     }
 }
\ No newline at end of file
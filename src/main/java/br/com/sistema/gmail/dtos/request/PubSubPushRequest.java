@@ -0,0 +1,49 @@
+package br.com.sistema.gmail.dtos.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigInteger;
+import java.util.Map;
+
+@Schema(description = "Mensagem entregue por uma assinatura push do Cloud Pub/Sub (watch do Gmail)")
+public record PubSubPushRequest(
+        
+    @Schema(description = "Mensagem do Pub/Sub", required = true)
+    PubSubMessage message,
+    
+    @Schema(description = "Assinatura que entregou a mensagem", example = "projects/meu-projeto/subscriptions/gmail-push")
+    String subscription
+    
+) {
+    @Schema(description = "Mensagem do Pub/Sub")
+    public record PubSubMessage(
+            
+        @Schema(description = "JSON da notificação do Gmail em base64: {\"emailAddress\": ..., \"historyId\": ...}",
+                example = "eyJlbWFpbEFkZHJlc3MiOiJ1c3VhcmlvQGdtYWlsLmNvbSIsImhpc3RvcnlJZCI6MTIzNDU2N30=")
+        String data,
+        
+        @Schema(description = "ID da mensagem no Pub/Sub", example = "2070443601311540")
+        String messageId,
+        
+        @Schema(description = "Horário de publicação", example = "2025-01-22T15:30:00.000Z")
+        String publishTime,
+        
+        @Schema(description = "Atributos da mensagem")
+        Map<String, String> attributes
+        
+    ) {}
+    
+    @Schema(description = "Notificação do Gmail contida em message.data")
+    public record GmailNotification(
+            
+        @Schema(description = "Caixa que mudou", example = "usuario@gmail.com")
+        String emailAddress,
+        
+        @Schema(description = "historyId da caixa após a mudança", example = "1234567")
+        BigInteger historyId
+        
+    ) {}
+    
+    public boolean isValid() {
+        return message != null && message.data() != null && !message.data().isBlank();
+    }
+}
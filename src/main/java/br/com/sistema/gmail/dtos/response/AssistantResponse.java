@@ -39,6 +39,18 @@ public record AssistantResponse(
         );
     }
     
+    public static AssistantResponse direct(String question, String type, String data) {
+        return new AssistantResponse(
+                true,
+                "GmailAssistant",
+                type,
+                question,
+                data,
+                null,
+                java.time.LocalDateTime.now().toString()
+        );
+    }
+    
     public static AssistantResponse error(String question, String error) {
         return new AssistantResponse(
                 false,
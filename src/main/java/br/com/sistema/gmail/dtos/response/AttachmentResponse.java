@@ -0,0 +1,23 @@
+package br.com.sistema.gmail.dtos.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Anexo de um email")
+public record AttachmentResponse(
+        
+    @Schema(description = "Identificador da parte MIME", example = "2")
+    String partId,
+    
+    @Schema(description = "Nome do arquivo", example = "relatorio.pdf")
+    String filename,
+    
+    @Schema(description = "Tipo MIME", example = "application/pdf")
+    String mimeType,
+    
+    @Schema(description = "Tamanho em bytes", example = "5242880")
+    Long size,
+    
+    @Schema(description = "URL de download (aceita Range)", example = "/api/v1/gmail/emails/18d2f.../attachments/2")
+    String downloadUrl
+    
+) {}
@@ -0,0 +1,37 @@
+package br.com.sistema.gmail.dtos.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Estatísticas do cache de mensagens")
+public record CacheStatsResponse(
+        
+    @Schema(description = "Nível de metadados (listagens)")
+    TierStats metadata,
+    
+    @Schema(description = "Nível de mensagens completas (leitura)")
+    TierStats full
+    
+) {
+    @Schema(description = "Estatísticas de um nível do cache")
+    public record TierStats(
+            
+        @Schema(description = "Entradas em cache", example = "120")
+        Long entries,
+        
+        @Schema(description = "Peso total estimado em bytes", example = "524288")
+        Long weightBytes,
+        
+        @Schema(description = "Acertos", example = "340")
+        Long hits,
+        
+        @Schema(description = "Faltas", example = "60")
+        Long misses,
+        
+        @Schema(description = "Taxa de acerto (0 a 1)", example = "0.85")
+        Double hitRate,
+        
+        @Schema(description = "Entradas removidas por eviction", example = "3")
+        Long evictions
+        
+    ) {}
+}
@@ -0,0 +1,29 @@
+package br.com.sistema.gmail.dtos.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Estatísticas da memória das sessões de chat")
+public record ChatSessionStatsResponse(
+        
+    @Schema(description = "Sessões ativas", example = "42")
+    Long sessions,
+    
+    @Schema(description = "Memória total estimada em bytes", example = "1048576")
+    Long totalBytes,
+    
+    @Schema(description = "Orçamento máximo em bytes", example = "64000000")
+    Long maxBytes,
+    
+    @Schema(description = "Média de bytes por sessão", example = "24966")
+    Long avgBytesPerSession,
+    
+    @Schema(description = "Maior sessão em bytes", example = "81234")
+    Long largestSessionBytes,
+    
+    @Schema(description = "Média de mensagens na janela por sessão", example = "12.5")
+    Double avgMessagesPerSession,
+    
+    @Schema(description = "Sessões removidas por tamanho ou expiração", example = "7")
+    Long evictions
+    
+) {}
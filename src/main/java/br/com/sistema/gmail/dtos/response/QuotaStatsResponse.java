@@ -0,0 +1,40 @@
+package br.com.sistema.gmail.dtos.response;
+
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Uso da cota da Gmail API")
+public record QuotaStatsResponse(
+        
+    @Schema(description = "Limite configurado em units por segundo", example = "250")
+    Integer unitsPerSecond,
+    
+    @Schema(description = "Units disponíveis agora no bucket (negativo = reservas em espera)", example = "180.5")
+    Double availableUnits,
+    
+    @Schema(description = "Units consumidas no último minuto", example = "1200")
+    Long unitsLastMinute,
+    
+    @Schema(description = "Units consumidas desde o início", example = "54000")
+    Long totalUnits,
+    
+    @Schema(description = "Units consumidas por operação")
+    Map<String, Long> unitsByOperation,
+    
+    @Schema(description = "Chamadas que esperaram pelo bucket", example = "12")
+    Long throttled,
+    
+    @Schema(description = "Chamadas descartadas por exceder a espera máxima", example = "0")
+    Long rejected,
+    
+    @Schema(description = "Novas tentativas após erros transitórios", example = "3")
+    Long retries,
+    
+    @Schema(description = "Respostas 429/rateLimitExceeded recebidas", example = "2")
+    Long rateLimitErrors,
+    
+    @Schema(description = "Pausa restante após limite da API, em ms", example = "0")
+    Long pausedMillis
+    
+) {}
@@ -0,0 +1,29 @@
+package br.com.sistema.gmail.dtos.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Estatísticas do cache de respostas do chat")
+public record ResponseCacheStatsResponse(
+        
+    @Schema(description = "Se o cache está habilitado", example = "true")
+    Boolean enabled,
+    
+    @Schema(description = "Respostas em cache", example = "25")
+    Long entries,
+    
+    @Schema(description = "Acertos", example = "80")
+    Long hits,
+    
+    @Schema(description = "Faltas", example = "40")
+    Long misses,
+    
+    @Schema(description = "Taxa de acerto (0 a 1)", example = "0.66")
+    Double hitRate,
+    
+    @Schema(description = "Respostas removidas por tamanho ou expiração", example = "2")
+    Long evictions,
+    
+    @Schema(description = "Respostas não cacheadas (tool de escrita ou historyId indisponível)", example = "5")
+    Long bypassed
+    
+) {}
@@ -0,0 +1,101 @@
+package br.com.sistema.gmail.mapper;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.dtos.response.EmailDetailResponse;
+import br.com.sistema.gmail.dtos.response.EmailListResponse.EmailInfo;
+import br.com.sistema.gmail.dtos.response.EmailListResponse.Sender;
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.models.Remetente;
+
+/**
+ * Converte mensagens da Gmail API para o modelo {@link Email}.
+ *
+ * Ponto único de leitura das mensagens para tools, endpoints e
+ * sincronização: os headers são percorridos uma vez ({@link MessageHeaders})
+ * e as labels também.
+ */
+@Component
+public class EmailMapper {
+
+    private static final int PREVIEW_LENGTH = 100;
+
+    public Email toEmail(Message message) {
+        MessageHeaders headers = headers(message);
+
+        Email email = Email.builder()
+                .id(message.getId())
+                .remetente(headers.remetente())
+                .assunto(headers.subject())
+                .data(headers.date())
+                .dataRecebimento(message.getInternalDate())
+                .previa(message.getSnippet())
+                .build();
+        applyLabels(email, message.getLabelIds());
+        return email;
+    }
+
+    public MessageHeaders headers(Message message) {
+        return MessageHeaders.of(message);
+    }
+
+    /**
+     * Item de listagem da API REST; {@code number} é a posição na listagem (1, 2...).
+     */
+    public EmailInfo toEmailInfo(Email email, int number) {
+        String previa = email.getPrevia();
+
+        return new EmailInfo(
+                email.getId(),
+                number,
+                toSender(email.getRemetente()),
+                email.getAssunto(),
+                previa != null && previa.length() > PREVIEW_LENGTH ? previa.substring(0, PREVIEW_LENGTH) : previa,
+                email.getData(),
+                email.getNaoLido(),
+                email.getImportante());
+    }
+
+    public EmailDetailResponse toEmailDetail(Email email, String body) {
+        return new EmailDetailResponse(
+                email.getId(),
+                toSender(email.getRemetente()),
+                email.getAssunto(),
+                body,
+                email.getData(),
+                email.getNaoLido(),
+                email.getImportante());
+    }
+
+    /**
+     * Atualiza as flags derivadas de labels (lido, importante, estrela).
+     */
+    public void applyLabels(Email email, List<String> labelIds) {
+        boolean naoLido = false;
+        boolean importante = false;
+        boolean estrela = false;
+
+        if (labelIds != null) {
+            for (String label : labelIds) {
+                switch (label) {
+                    case "UNREAD" -> naoLido = true;
+                    case "IMPORTANT" -> importante = true;
+                    case "STARRED" -> estrela = true;
+                    default -> { }
+                }
+            }
+        }
+
+        email.setNaoLido(naoLido);
+        email.setImportante(importante);
+        email.setEstrela(estrela);
+    }
+
+    private Sender toSender(Remetente remetente) {
+        return remetente != null ? new Sender(remetente.getNome(), remetente.getEmail()) : null;
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.sistema.gmail.mapper;
+
+import java.io.UnsupportedEncodingException;
+
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeUtility;
+
+import br.com.sistema.gmail.models.Remetente;
+
+/**
+ * Cabeçalhos exibidos de uma mensagem, lidos numa única passada pela lista
+ * de headers.
+ *
+ * {@code to} e {@code subject} já vêm decodificados (RFC 2047:
+ * {@code =?UTF-8?B?...?=}). O {@code From} fica cru: decodificado antes da
+ * análise, um nome como "Silva, João" quebraria o endereço na vírgula; o
+ * {@link #remetente()} analisa o valor cru e usa o nome já decodificado pelo
+ * {@link InternetAddress}.
+ *
+ * Ausentes viram {@code ""}; vale o primeiro de cada nome.
+ */
+public record MessageHeaders(String rawFrom, String to, String subject, String date) {
+
+    static final MessageHeaders EMPTY = new MessageHeaders("", "", "", "");
+
+    public static MessageHeaders of(Message message) {
+        if (message.getPayload() == null || message.getPayload().getHeaders() == null) {
+            return EMPTY;
+        }
+
+        String from = null;
+        String to = null;
+        String subject = null;
+        String date = null;
+
+        for (MessagePartHeader header : message.getPayload().getHeaders()) {
+            String name = header.getName();
+            if (name == null) {
+                continue;
+            }
+            if (from == null && name.equalsIgnoreCase("From")) {
+                from = header.getValue();
+            } else if (to == null && name.equalsIgnoreCase("To")) {
+                to = header.getValue();
+            } else if (subject == null && name.equalsIgnoreCase("Subject")) {
+                subject = header.getValue();
+            } else if (date == null && name.equalsIgnoreCase("Date")) {
+                date = header.getValue();
+            }
+        }
+
+        return new MessageHeaders(from != null ? from : "", decode(to), decode(subject), date != null ? date : "");
+    }
+
+    /**
+     * Remetente do {@code From}: "Nome &lt;email@dominio&gt;" ou apenas "email@dominio".
+     */
+    public Remetente remetente() {
+        try {
+            InternetAddress[] addresses = InternetAddress.parseHeader(rawFrom, false);
+            // Sem "@" no primeiro: nome com vírgula sem aspas, fora do padrão
+            if (addresses.length > 0 && addresses[0].getAddress() != null && addresses[0].getAddress().contains("@")) {
+                String nome = addresses[0].getPersonal();
+                return new Remetente(nome != null && !nome.isBlank() ? nome.trim() : null, addresses[0].getAddress());
+            }
+        } catch (AddressException e) {
+            // Fora do padrão: separa pelo último "<...>"
+        }
+        return toRemetente(decode(rawFrom));
+    }
+
+    /**
+     * Remetente para exibição: "Nome &lt;email@dominio&gt;", já decodificado.
+     */
+    public String from() {
+        Remetente remetente = remetente();
+        if (remetente.getNome() == null) {
+            return remetente.getEmail();
+        }
+        return remetente.getNome() + " <" + remetente.getEmail() + ">";
+    }
+
+    private static Remetente toRemetente(String from) {
+        int open = from.lastIndexOf('<');
+        int close = from.lastIndexOf('>');
+
+        if (open >= 0 && close > open) {
+            String nome = from.substring(0, open).trim().replace("\"", "");
+            String email = from.substring(open + 1, close).trim();
+            return new Remetente(nome.isEmpty() ? null : nome, email);
+        }
+        return new Remetente(null, from.trim());
+    }
+
+    // Só passa pelo decodificador quem tem encoded-word
+    static String decode(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.contains("=?")) {
+            return value;
+        }
+        try {
+            return MimeUtility.decodeText(value);
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+}
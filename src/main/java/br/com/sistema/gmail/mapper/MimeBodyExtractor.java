@@ -0,0 +1,207 @@
+package br.com.sistema.gmail.mapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Extrai o corpo em texto de uma mensagem do Gmail.
+ *
+ * Percorre a árvore MIME recursivamente (multipart/mixed, alternative,
+ * related...) ignorando anexos, e escolhe a melhor parte de texto:
+ * text/plain quando existir, senão text/html convertido para texto.
+ *
+ * O base64url é decodificado de forma incremental até o limite de
+ * {@code gmail.body.max-bytes}, respeitando o charset declarado na parte,
+ * para que mensagens enormes não sejam decodificadas inteiras.
+ */
+@Component
+@Slf4j
+public class MimeBodyExtractor {
+
+    private static final Pattern CHARSET = Pattern.compile("charset\\s*=\\s*\"?([^\";\\s]+)\"?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCRIPT_STYLE = Pattern.compile("(?is)<(script|style)[^>]*>.*?</\\1>");
+    private static final Pattern LINE_BREAK_TAGS = Pattern.compile("(?i)<(br|/p|/div|/tr|/li|/h[1-6])[^>]*>");
+    private static final Pattern TAGS = Pattern.compile("<[^>]+>");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n\\s*\\n+");
+    private static final String TRUNCATED = "\n\n[... conteúdo truncado]";
+
+    private final int maxBytes;
+
+    public MimeBodyExtractor(@Value("${gmail.body.max-bytes:32768}") int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public String extract(Message message) {
+        try {
+            if (message.getPayload() == null) return "(corpo vazio)";
+
+            MessagePart part = findText(message.getPayload(), "text/plain");
+            boolean html = false;
+            if (part == null) {
+                part = findText(message.getPayload(), "text/html");
+                html = true;
+            }
+            if (part == null) {
+                return "(corpo não disponível)";
+            }
+
+            DecodedText decoded = decode(part);
+            String text = html ? htmlToText(decoded.text()) : decoded.text();
+
+            return decoded.truncated() ? text + TRUNCATED : text;
+
+        } catch (Exception e) {
+            log.warn("⚠️ Erro ao extrair corpo do email {}: {}", message.getId(), e.getMessage());
+            return "(erro ao ler corpo)";
+        }
+    }
+
+    // ===============================
+    // Árvore MIME
+    // ===============================
+
+    private MessagePart findText(MessagePart part, String mimeType) {
+        if (isAttachment(part)) {
+            return null;
+        }
+
+        String type = part.getMimeType() != null ? part.getMimeType().toLowerCase(Locale.ROOT) : "";
+
+        if (type.equals(mimeType) && part.getBody() != null && part.getBody().getData() != null) {
+            return part;
+        }
+
+        if (type.startsWith("multipart/") && part.getParts() != null) {
+            for (MessagePart child : part.getParts()) {
+                MessagePart found = findText(child, mimeType);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isAttachment(MessagePart part) {
+        return (part.getFilename() != null && !part.getFilename().isEmpty())
+                || (part.getBody() != null && part.getBody().getAttachmentId() != null);
+    }
+
+    // ===============================
+    // Decodificação
+    // ===============================
+
+    private DecodedText decode(MessagePart part) throws IOException {
+        String data = part.getBody().getData();
+
+        byte[] buffer = new byte[maxBytes];
+        int length = 0;
+        boolean truncated;
+
+        try (InputStream in = Base64.getUrlDecoder().wrap(new AsciiInputStream(data))) {
+            int read;
+            while (length < maxBytes && (read = in.read(buffer, length, maxBytes - length)) > 0) {
+                length += read;
+            }
+            truncated = length == maxBytes && in.read() != -1;
+        }
+
+        CharsetDecoder decoder = charsetOf(part).newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        // Corpo completo: o decoder é finalizado e uma sequência inválida no fim vira U+FFFD.
+        // Corpo cortado no limite: a sequência multibyte incompleta no corte é descartada,
+        // e o TRUNCATED anexado em extract() sinaliza o corte.
+        CharBuffer chars = CharBuffer.allocate((int) (length * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(ByteBuffer.wrap(buffer, 0, length), chars, !truncated);
+        if (!truncated) {
+            decoder.flush(chars);
+        }
+        chars.flip();
+
+        return new DecodedText(chars.toString(), truncated);
+    }
+
+    private Charset charsetOf(MessagePart part) {
+        if (part.getHeaders() != null) {
+            for (MessagePartHeader header : part.getHeaders()) {
+                if ("Content-Type".equalsIgnoreCase(header.getName()) && header.getValue() != null) {
+                    Matcher matcher = CHARSET.matcher(header.getValue());
+                    if (matcher.find()) {
+                        try {
+                            return Charset.forName(matcher.group(1));
+                        } catch (Exception e) {
+                            log.debug("Charset desconhecido: {}", matcher.group(1));
+                        }
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private String htmlToText(String html) {
+        String text = SCRIPT_STYLE.matcher(html).replaceAll("");
+        text = LINE_BREAK_TAGS.matcher(text).replaceAll("\n");
+        text = TAGS.matcher(text).replaceAll("");
+        text = text.replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+        return BLANK_LINES.matcher(text).replaceAll("\n\n").trim();
+    }
+
+    private record DecodedText(String text, boolean truncated) {}
+
+    /**
+     * Lê os caracteres base64 da String sem copiá-la para um byte[].
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private final String data;
+        private int position;
+
+        AsciiInputStream(String data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length() ? data.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (position >= data.length()) {
+                return -1;
+            }
+            int count = Math.min(length, data.length() - position);
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = (byte) data.charAt(position++);
+            }
+            return count;
+        }
+    }
+}
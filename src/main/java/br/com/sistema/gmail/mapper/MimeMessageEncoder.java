@@ -0,0 +1,38 @@
+package br.com.sistema.gmail.mapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Properties;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Message.RecipientType;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Monta o email em MIME e codifica em base64url, formato do campo
+ * {@code raw} de {@code messages.send}.
+ */
+@Component
+public class MimeMessageEncoder {
+
+    // A sessão só fornece as propriedades do MIME; nada é enviado por SMTP
+    private static final Session SESSION = Session.getInstance(new Properties());
+
+    public String encode(String to, String subject, String body) throws MessagingException, IOException {
+        MimeMessage email = new MimeMessage(SESSION);
+
+        email.setFrom("me");
+        email.addRecipients(RecipientType.TO, to);
+        email.setSubject(subject);
+        email.setText(body);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        email.writeTo(buffer);
+
+        return Base64.getUrlEncoder().encodeToString(buffer.toByteArray());
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.sistema.gmail.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Métricas do assistente, exportadas pelo actuator ({@code /actuator/prometheus}).
+ *
+ * Os timers publicam histogramas de percentis, para que o p99 seja calculado
+ * no Prometheus ({@code histogram_quantile}) agregando todas as instâncias.
+ * As tags têm cardinalidade fixa: nomes de tools, operações da Gmail API,
+ * status HTTP e modelo — nunca IDs de emails ou de sessões.
+ *
+ * <ul>
+ *   <li>{@code gmail.tool.executions} — latência de cada tool, por {@code tool} e {@code outcome}</li>
+ *   <li>{@code gmail.api.requests} / {@code gmail.api.errors} — chamadas à Gmail API, por {@code operation} e {@code status}</li>
+ *   <li>{@code gemini.requests} — latência das chamadas ao Gemini, por {@code model} e {@code outcome}</li>
+ *   <li>{@code gemini.tokens} — tokens de entrada e saída por chamada, por {@code model} e {@code type}</li>
+ *   <li>{@code gmail.chat.requests} — latência total do chat, por {@code mode} e {@code outcome}</li>
+ *   <li>{@code gmail.chat.tool.calls} — tools executadas por mensagem do chat, por {@code mode}</li>
+ *   <li>{@code gmail.push.notifications} — notificações push recebidas, por {@code outcome}</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class AssistantMetrics {
+
+    // Status usado quando a chamada falha sem resposta HTTP (timeout, conexão)
+    public static final int STATUS_IO_ERROR = 0;
+
+    private final MeterRegistry registry;
+
+    // ===============================
+    // Tools
+    // ===============================
+
+    public void recordTool(String tool, long nanos, boolean success) {
+        Timer.builder("gmail.tool.executions")
+                .description("Latência das tools chamadas pelo LLM")
+                .tag("tool", tool)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // ===============================
+    // Gmail API
+    // ===============================
+
+    public void recordGmailCall(String operation, long nanos, int status) {
+        String statusTag = status == STATUS_IO_ERROR ? "IO_ERROR" : String.valueOf(status);
+
+        Timer.builder("gmail.api.requests")
+                .description("Latência das chamadas à Gmail API (cada tentativa)")
+                .tag("operation", operation)
+                .tag("status", statusTag)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        if (status == STATUS_IO_ERROR || status >= 400) {
+            Counter.builder("gmail.api.errors")
+                    .description("Chamadas à Gmail API que falharam")
+                    .tag("operation", operation)
+                    .tag("status", statusTag)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    // ===============================
+    // Gemini
+    // ===============================
+
+    public void recordGemini(String model, long nanos, boolean success, Integer inputTokens, Integer outputTokens) {
+        Timer.builder("gemini.requests")
+                .description("Latência das chamadas ao Gemini")
+                .tag("model", model)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        recordTokens(model, "input", inputTokens);
+        recordTokens(model, "output", outputTokens);
+    }
+
+    private void recordTokens(String model, String type, Integer tokens) {
+        if (tokens == null) {
+            return;
+        }
+        DistributionSummary.builder("gemini.tokens")
+                .description("Tokens por chamada ao Gemini")
+                .baseUnit("tokens")
+                .tag("model", model)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(tokens);
+    }
+
+    // ===============================
+    // Chat
+    // ===============================
+
+    /**
+     * @param mode    {@code sync} ou {@code stream}
+     * @param outcome {@code llm}, {@code cache} ou {@code error}
+     */
+    public void recordChat(String mode, String outcome, long nanos, int toolCalls) {
+        Timer.builder("gmail.chat.requests")
+                .description("Latência total de uma mensagem do chat")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        if (!"cache".equals(outcome)) {
+            DistributionSummary.builder("gmail.chat.tool.calls")
+                    .description("Tools executadas por mensagem do chat")
+                    .tag("mode", mode)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(toolCalls);
+        }
+    }
+
+    // ===============================
+    // Push
+    // ===============================
+
+    /**
+     * @param outcome {@code scheduled}, {@code coalesced}, {@code stale} ou {@code unknown_account}
+     */
+    public void recordPush(String outcome) {
+        Counter.builder("gmail.push.notifications")
+                .description("Notificações push do Gmail recebidas")
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.sistema.gmail.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Mede cada chamada ao Gemini (síncrona ou streaming): latência e tokens de
+ * entrada/saída informados pela API. Registrado nos dois modelos em
+ * {@code AssistantConfig}.
+ *
+ * Uma mensagem do chat pode gerar várias chamadas (uma por rodada de tools);
+ * cada uma é medida separadamente.
+ */
+@Component
+public class GeminiMetricsListener implements ChatModelListener {
+
+    private static final String START_NANOS = "gmail.metrics.start";
+
+    private final AssistantMetrics metrics;
+    private final String modelName;
+
+    public GeminiMetricsListener(AssistantMetrics metrics,
+                                 @Value("${spring.langchain4j.google-ai.gemini.model-name:gemini-2.5-flash}") String modelName) {
+        this.metrics = metrics;
+        this.modelName = modelName;
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext context) {
+        context.attributes().put(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext context) {
+        TokenUsage usage = context.chatResponse().tokenUsage();
+        metrics.recordGemini(modelName, elapsed(context.attributes().get(START_NANOS)), true,
+                usage != null ? usage.inputTokenCount() : null,
+                usage != null ? usage.outputTokenCount() : null);
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext context) {
+        metrics.recordGemini(modelName, elapsed(context.attributes().get(START_NANOS)), false, null, null);
+    }
+
+    private long elapsed(Object start) {
+        return start instanceof Long startNanos ? System.nanoTime() - startNanos : 0;
+    }
+}
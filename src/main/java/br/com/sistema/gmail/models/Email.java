@@ -16,7 +16,9 @@ public class Email {
     private Remetente remetente;
     private String assunto;
     private String corpo;
+    private String previa;
     private String data;
+    private Long dataRecebimento;
     private Boolean naoLido;
     private Boolean importante;
     private Boolean estrela;
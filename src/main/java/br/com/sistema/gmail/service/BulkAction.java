@@ -0,0 +1,42 @@
+package br.com.sistema.gmail.service;
+
+import java.util.List;
+
+/**
+ * Ações em massa suportadas por {@link GmailBulkService}.
+ *
+ * As três primeiras viram um {@code users.messages.batchModify} com as
+ * labels abaixo; {@link #DELETE} usa {@code users.messages.batchDelete}, que
+ * apaga sem passar pela lixeira e exige o escopo {@code https://mail.google.com/}
+ * (com {@code gmail.modify} o Gmail responde 403). As tools do chat trocam
+ * DELETE por TRASH; só a API REST apaga em massa.
+ */
+public enum BulkAction {
+
+    MARK_READ(List.of(), List.of("UNREAD"), "marcados como lidos"),
+    MARK_UNREAD(List.of("UNREAD"), List.of(), "marcados como não lidos"),
+    TRASH(List.of("TRASH"), List.of("INBOX"), "movidos para lixeira"),
+    DELETE(List.of(), List.of(), "deletados permanentemente");
+
+    private final List<String> addLabelIds;
+    private final List<String> removeLabelIds;
+    private final String description;
+
+    BulkAction(List<String> addLabelIds, List<String> removeLabelIds, String description) {
+        this.addLabelIds = addLabelIds;
+        this.removeLabelIds = removeLabelIds;
+        this.description = description;
+    }
+
+    public List<String> getAddLabelIds() {
+        return addLabelIds;
+    }
+
+    public List<String> getRemoveLabelIds() {
+        return removeLabelIds;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.sistema.gmail.service;
+
+import java.math.BigInteger;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.dtos.response.ResponseCacheStatsResponse;
+import dev.langchain4j.service.Result;
+import dev.langchain4j.service.tool.ToolExecution;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache das respostas do chat para prompts repetidos.
+ *
+ * A chave é o prompt normalizado (minúsculas, sem acentos, espaços e
+ * pontuação final colapsados) mais o {@code historyId} atual da caixa:
+ * qualquer alteração no Gmail muda o historyId e invalida as respostas
+ * anteriores. A chave também leva a conta atual. Respostas em que o modelo executou uma tool que altera a
+ * caixa nunca são guardadas.
+ *
+ * Ler o historyId da chave o registra como marca d'água da conta: durante
+ * o turno, as tools não usam entradas do cache de mensagens nem a réplica
+ * local anteriores a ele. A resposta guardada reflete a caixa no historyId
+ * da chave ou depois dele.
+ */
+@Component
+@Slf4j
+public class ChatResponseCache {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.]+$");
+
+    private static final Set<String> MUTATING_TOOLS = Set.of(
+            "sendEmail", "markAsRead", "markAsUnread", "trashEmail", "deleteEmail",
+            "bulkActionByIds", "bulkActionByQuery"
+    );
+
+    private final MailboxSyncService mailboxSync;
+    private final boolean enabled;
+    private final Cache<String, String> responses;
+    private final LongAdder bypassed = new LongAdder();
+
+    public ChatResponseCache(
+            MailboxSyncService mailboxSync,
+            @Value("${gmail.chat.response-cache.enabled:true}") boolean enabled,
+            @Value("${gmail.chat.response-cache.max-entries:1000}") long maxEntries,
+            @Value("${gmail.chat.response-cache.ttl:PT5M}") Duration ttl) {
+
+        this.mailboxSync = mailboxSync;
+        this.enabled = enabled;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // ===============================
+    // Consulta e escrita
+    // ===============================
+
+    /**
+     * Chave do prompt no estado atual da caixa, ou vazio quando o cache está
+     * desabilitado ou o historyId não pôde ser obtido.
+     */
+    public Optional<String> keyFor(String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            BigInteger historyId = mailboxSync.currentHistoryId();
+            return Optional.of(GmailAccountContext.scoped(normalize(prompt) + '#' + historyId));
+        } catch (Exception e) {
+            log.debug("historyId indisponível, cache ignorado: {}", e.getMessage());
+            bypassed.increment();
+            return Optional.empty();
+        }
+    }
+
+    public Optional<String> get(String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    public void put(String key, Result<String> result) {
+        if (result.toolExecutions() != null) {
+            for (ToolExecution execution : result.toolExecutions()) {
+                if (MUTATING_TOOLS.contains(execution.request().name())) {
+                    log.debug("Resposta não cacheada: executou {}", execution.request().name());
+                    bypassed.increment();
+                    return;
+                }
+            }
+        }
+        responses.put(key, result.content());
+    }
+
+    static String normalize(String prompt) {
+        String text = Normalizer.normalize(prompt.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        text = DIACRITICS.matcher(text).replaceAll("");
+        text = TRAILING_PUNCTUATION.matcher(text).replaceAll("");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    // ===============================
+    // Estatísticas
+    // ===============================
+
+    public ResponseCacheStatsResponse stats() {
+        CacheStats stats = responses.stats();
+        return new ResponseCacheStatsResponse(
+                enabled,
+                responses.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                bypassed.sum()
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.sistema.gmail.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import br.com.sistema.gmail.dtos.response.ChatSessionStatsResponse;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memórias das sessões de chat, indexadas pelo {@code sessionId}.
+ *
+ * O store é limitado pelo tamanho estimado de todas as sessões
+ * ({@code gmail.chat.memory.max-bytes}) e expira sessões ociosas após
+ * {@code gmail.chat.memory.ttl}; cada sessão é repesada a cada mensagem.
+ */
+@Component
+@Slf4j
+public class ChatSessionStore implements ChatMemoryProvider {
+
+    private final Cache<Object, SessionChatMemory> sessions;
+    private final int maxMessages;
+    private final int summaryMaxChars;
+    private final long maxBytes;
+
+    public ChatSessionStore(
+            @Value("${gmail.chat.memory.max-messages:20}") int maxMessages,
+            @Value("${gmail.chat.memory.summary-max-chars:2000}") int summaryMaxChars,
+            @Value("${gmail.chat.memory.max-bytes:64000000}") long maxBytes,
+            @Value("${gmail.chat.memory.ttl:PT30M}") Duration ttl) {
+
+        this.maxMessages = maxMessages;
+        this.summaryMaxChars = summaryMaxChars;
+        this.maxBytes = maxBytes;
+        this.sessions = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Object id, SessionChatMemory memory) -> memory.estimatedBytes())
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public ChatMemory get(Object memoryId) {
+        return sessions.get(memoryId, id -> new SessionChatMemory(id, maxMessages, summaryMaxChars, this::reweigh));
+    }
+
+    public void remove(Object memoryId) {
+        sessions.invalidate(memoryId);
+    }
+
+    // Substituir pelo mesmo valor faz o Caffeine recalcular o peso
+    private void reweigh(SessionChatMemory memory) {
+        sessions.asMap().replace(memory.id(), memory, memory);
+    }
+
+    // ===============================
+    // Estatísticas
+    // ===============================
+
+    public ChatSessionStatsResponse stats() {
+        long count = 0;
+        long totalBytes = 0;
+        long largestBytes = 0;
+        long totalMessages = 0;
+
+        for (SessionChatMemory memory : sessions.asMap().values()) {
+            int bytes = memory.estimatedBytes();
+            count++;
+            totalBytes += bytes;
+            largestBytes = Math.max(largestBytes, bytes);
+            totalMessages += memory.size();
+        }
+
+        CacheStats stats = sessions.stats();
+        return new ChatSessionStatsResponse(
+                count,
+                totalBytes,
+                maxBytes,
+                count > 0 ? totalBytes / count : 0,
+                largestBytes,
+                count > 0 ? (double) totalMessages / count : 0,
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,148 @@
+package br.com.sistema.gmail.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.ListMessagesResponse;
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageFetcher;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.models.Email;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Listagens paginadas direto do Gmail ({@code messages.list} + busca em lote).
+ *
+ * Uma página é identificada pelo {@code pageToken} do Gmail e por quantos
+ * itens dela já foram entregues ({@code skip}), o que permite continuar uma
+ * listagem — inclusive uma cortada no meio pelo orçamento de tokens — sem
+ * buscar de novo as mensagens já mostradas. O {@code skip} conta os IDs
+ * listados pelo Gmail, não os emails entregues: uma mensagem que falha na
+ * busca em lote some da página, mas continua ocupando sua posição.
+ *
+ * {@link #stream} percorre todas as páginas entregando um email por vez:
+ * só uma página fica em memória, qualquer que seja o total.
+ */
+@Service
+@Slf4j
+public class EmailListingService {
+
+    private static final String USER = "me";
+    // Limite do messages.list
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageFetcher messageFetcher;
+    private final GmailRateLimiter rateLimiter;
+    private final EmailMapper emailMapper;
+    private final int streamPageSize;
+
+    public EmailListingService(GmailClientProvider clientProvider,
+                               GmailMessageFetcher messageFetcher,
+                               GmailRateLimiter rateLimiter,
+                               EmailMapper emailMapper,
+                               @Value("${gmail.stream.page-size:100}") int streamPageSize) {
+        this.clientProvider = clientProvider;
+        this.messageFetcher = messageFetcher;
+        this.rateLimiter = rateLimiter;
+        this.emailMapper = emailMapper;
+        this.streamPageSize = Math.min(MAX_PAGE_SIZE, Math.max(1, streamPageSize));
+    }
+
+    /**
+     * Uma página da busca: ignora os {@code skip} primeiros itens da página
+     * {@code pageToken} ({@code null} = primeira) e devolve até {@code size} emails.
+     */
+    public EmailPage page(String query, String pageToken, int skip, int size) throws IOException {
+        Gmail service = clientProvider.getGmailService();
+        int maxResults = Math.min(MAX_PAGE_SIZE, skip + size);
+
+        ListMessagesResponse response = rateLimiter.execute(GmailOperation.MESSAGES_LIST, service.users().messages()
+                .list(USER)
+                .setQ(query)
+                .setMaxResults((long) maxResults)
+                .setPageToken(pageToken)
+                .setFields(MessageProjection.LIST_FIELDS));
+
+        List<Message> messages = response.getMessages() != null ? response.getMessages() : List.of();
+        if (skip >= messages.size()) {
+            return new EmailPage(List.of(), List.of(), pageToken, skip, response.getNextPageToken());
+        }
+
+        List<String> ids = messages.subList(skip, messages.size()).stream()
+                .map(Message::getId)
+                .toList();
+
+        List<Message> fetched = messageFetcher.fetch(service, ids, MessageProjection.LISTING);
+
+        // O fetcher mantém a ordem dos IDs e omite os que falharam: casa cada um com sua posição na página
+        List<Email> emails = new ArrayList<>(fetched.size());
+        List<Integer> positions = new ArrayList<>(fetched.size());
+        int next = 0;
+        for (int i = 0; i < ids.size() && next < fetched.size(); i++) {
+            if (ids.get(i).equals(fetched.get(next).getId())) {
+                emails.add(emailMapper.toEmail(fetched.get(next++)));
+                positions.add(skip + i);
+            }
+        }
+        if (emails.size() < ids.size()) {
+            log.warn("⚠️ {} de {} emails da página não puderam ser buscados", ids.size() - emails.size(), ids.size());
+        }
+
+        return new EmailPage(emails, positions, pageToken, skip, response.getNextPageToken());
+    }
+
+    /**
+     * Entrega cada email da busca ao {@code sink}, página a página, até
+     * {@code limit} emails ou o fim da busca. Retorna quantos foram entregues.
+     */
+    public long stream(String query, long limit, EmailSink sink) throws IOException {
+        String pageToken = null;
+        long delivered = 0;
+
+        do {
+            int size = (int) Math.min(streamPageSize, limit - delivered);
+            EmailPage page = page(query, pageToken, 0, size);
+
+            for (Email email : page.emails()) {
+                sink.accept(email);
+            }
+            delivered += page.emails().size();
+            pageToken = page.nextPageToken();
+
+        } while (pageToken != null && delivered < limit);
+
+        log.info("📤 Listagem em streaming concluída: {} emails ({})", delivered, query);
+        return delivered;
+    }
+
+    /**
+     * @param positions     posição de cada email entre os IDs da página do Gmail
+     * @param pageToken     token da página lida ({@code null} = primeira)
+     * @param skip          itens da página ignorados antes de {@code emails}
+     * @param nextPageToken token da página seguinte, ou {@code null} no fim
+     */
+    public record EmailPage(List<Email> emails, List<Integer> positions, String pageToken, int skip,
+                            String nextPageToken) {
+
+        /** {@code skip} que retoma a página logo após os {@code written} primeiros emails. */
+        public int skipAfter(int written) {
+            return written == 0 ? skip : positions.get(written - 1) + 1;
+        }
+    }
+
+    @FunctionalInterface
+    public interface EmailSink {
+        void accept(Email email) throws IOException;
+    }
+}
@@ -0,0 +1,297 @@
+package br.com.sistema.gmail.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.models.Remetente;
+
+/**
+ * Índice invertido em memória dos emails sincronizados.
+ *
+ * Indexa assunto, remetente, prévia e (quando já lido) o corpo em texto
+ * puro. Cada termo aponta para uma {@link PostingList} de ints (documento e
+ * frequência ponderada), sem boxing. Documentos são adicionados e removidos
+ * incrementalmente conforme a sincronização altera a caixa de entrada.
+ *
+ * A busca exige todos os termos (AND) e ordena por TF-IDF.
+ */
+public class EmailSearchIndex {
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "de", "da", "do", "das", "dos", "e", "em", "no", "na", "nos", "nas",
+            "o", "a", "os", "as", "um", "uma", "para", "por", "com", "que", "se"
+    );
+
+    private static final int SUBJECT_WEIGHT = 3;
+    private static final int SENDER_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final List<String> messageIds = new ArrayList<>();
+
+    // ===============================
+    // Atualização
+    // ===============================
+
+    public void add(Email email) {
+        Map<String, Integer> fields = new HashMap<>();
+        addTerms(fields, email.getAssunto(), SUBJECT_WEIGHT);
+        Remetente remetente = email.getRemetente();
+        if (remetente != null) {
+            addTerms(fields, remetente.getNome(), SENDER_WEIGHT);
+            addTerms(fields, remetente.getEmail(), SENDER_WEIGHT);
+        }
+        addTerms(fields, email.getPrevia(), TEXT_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            Document previous = removeLocked(email.getId());
+            Map<String, Integer> body = previous != null ? previous.body() : Map.of();
+            insertLocked(email.getId(), fields, body);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Acrescenta o corpo em texto puro a um email já indexado.
+     */
+    public void addBody(String messageId, String text) {
+        Map<String, Integer> body = new HashMap<>();
+        addTerms(body, text, TEXT_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            Document previous = removeLocked(messageId);
+            if (previous != null) {
+                insertLocked(messageId, previous.fields(), body);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String messageId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(messageId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            messageIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===============================
+    // Busca
+    // ===============================
+
+    /**
+     * Retorna os IDs das mensagens que contêm todos os termos da consulta,
+     * do mais relevante para o menos relevante.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            double totalDocs = documents.size();
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + totalDocs / lists[i].size);
+            }
+
+            // Min-heap com os melhores resultados: [score, doc]
+            PriorityQueue<double[]> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+
+            PostingList shortest = lists[0];
+            candidates:
+            for (int p = 0; p < shortest.size; p++) {
+                int doc = shortest.docs[p];
+                double score = shortest.weights[p] * idf[0];
+
+                for (int i = 1; i < lists.length; i++) {
+                    int weight = lists[i].weightOf(doc);
+                    if (weight == 0) {
+                        continue candidates;
+                    }
+                    score += weight * idf[i];
+                }
+
+                top.add(new double[]{score, doc});
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            String[] result = new String[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = messageIds.get((int) top.poll()[1]);
+            }
+            return Arrays.asList(result);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===============================
+    // Auxiliares (chamados com o write lock)
+    // ===============================
+
+    private void insertLocked(String messageId, Map<String, Integer> fields, Map<String, Integer> body) {
+        int doc = messageIds.size();
+        messageIds.add(messageId);
+        documents.put(messageId, new Document(messageId, doc, fields, body));
+
+        Map<String, Integer> merged = new HashMap<>(fields);
+        body.forEach((term, weight) -> merged.merge(term, weight, Integer::sum));
+        merged.forEach((term, weight) -> postings
+                .computeIfAbsent(term, key -> new PostingList())
+                .append(doc, weight));
+    }
+
+    private Document removeLocked(String messageId) {
+        Document document = documents.remove(messageId);
+        if (document == null) {
+            return null;
+        }
+
+        Set<String> terms = new LinkedHashSet<>(document.fields().keySet());
+        terms.addAll(document.body().keySet());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(document.doc()) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        messageIds.set(document.doc(), null);
+
+        // Compacta a tabela de documentos quando muitos slots ficaram vazios
+        if (messageIds.size() > 1024 && documents.size() < messageIds.size() / 2) {
+            compactLocked();
+        }
+        return document;
+    }
+
+    private void compactLocked() {
+        List<Document> live = new ArrayList<>(documents.values());
+        live.sort((a, b) -> Integer.compare(a.doc(), b.doc()));
+
+        postings.clear();
+        documents.clear();
+        messageIds.clear();
+
+        for (Document document : live) {
+            insertLocked(document.messageId(), document.fields(), document.body());
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SPLIT.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (token.length() > 1 && !STOPWORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> target, String text, int weight) {
+        for (String term : tokenize(text)) {
+            target.merge(term, weight, Integer::sum);
+        }
+    }
+
+    // ===============================
+    // Estruturas internas
+    // ===============================
+
+    private record Document(String messageId, int doc, Map<String, Integer> fields, Map<String, Integer> body) {}
+
+    /**
+     * Lista de postings ordenada por documento, em arrays primitivos.
+     */
+    static final class PostingList {
+
+        int[] docs = new int[4];
+        int[] weights = new int[4];
+        int size;
+
+        void append(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int weightOf(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            return index >= 0 ? weights[index] : 0;
+        }
+    }
+}
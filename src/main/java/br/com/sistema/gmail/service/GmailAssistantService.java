@@ -1,42 +1,106 @@
 package br.com.sistema.gmail.service;
 
+import java.util.Optional;
+import java.util.UUID;
+
 import org.springframework.stereotype.Service;
 
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+
+import dev.langchain4j.service.MemoryId;
+import dev.langchain4j.service.Result;
 import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.UserMessage;
-import dev.langchain4j.service.spring.AiService;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
 public class GmailAssistantService {
     
+    private static final String EPHEMERAL_PREFIX = "tmp-";
+    
     private final GmailAiService aiService;
+    private final ChatSessionStore sessionStore;
+    private final ChatResponseCache responseCache;
+    private final AssistantMetrics metrics;
     
-    public GmailAssistantService(GmailAiService aiService) {
+    public GmailAssistantService(GmailAiService aiService, ChatSessionStore sessionStore,
+                                 ChatResponseCache responseCache, AssistantMetrics metrics) {
         this.aiService = aiService;
+        this.sessionStore = sessionStore;
+        this.responseCache = responseCache;
+        this.metrics = metrics;
     }
     
     public String processMessage(String userMessage) {
+        return processMessage(null, userMessage);
+    }
+    
+    /**
+     * Com {@code sessionId} a conversa continua de onde parou; sem ele a
+     * mensagem usa uma memória descartável, removida ao fim da chamada, e
+     * pode ser respondida pelo {@link ChatResponseCache}.
+     */
+    public String processMessage(String sessionId, String userMessage) {
+        String memoryId = memoryId(sessionId);
+        long start = System.nanoTime();
         try {
-            log.info("📩 Processando mensagem Gmail Assistant");
+            log.info("📩 Processando mensagem Gmail Assistant{}", sessionId != null ? " (sessão " + sessionId + ")" : "");
             log.info("   Mensagem: {}", userMessage.substring(0, Math.min(80, userMessage.length())));
             
-            String response = aiService.chat(userMessage);
+            // Sessões dependem do contexto da conversa: só mensagens avulsas usam o cache
+            Optional<String> cacheKey = isEphemeral(memoryId) ? responseCache.keyFor(userMessage) : Optional.empty();
+            Optional<String> cached = cacheKey.flatMap(responseCache::get);
+            if (cached.isPresent()) {
+                log.info("⚡ Resposta servida do cache");
+                metrics.recordChat("sync", "cache", System.nanoTime() - start, 0);
+                return cached.get();
+            }
+            
+            Result<String> result = aiService.chat(memoryId, userMessage);
+            cacheKey.ifPresent(key -> responseCache.put(key, result));
+            metrics.recordChat("sync", "llm", System.nanoTime() - start, result.toolExecutions().size());
             
             log.info("✅ Resposta gerada com sucesso");
-            return response;
+            return result.content();
             
         } catch (Exception e) {
+            metrics.recordChat("sync", "error", System.nanoTime() - start, 0);
             log.error("❌ Erro ao processar mensagem", e);
             return "Erro ao processar requisição: " + e.getMessage();
+        } finally {
+            releaseIfEphemeral(memoryId);
         }
     }
     
-    @AiService
+    // Sessões são isoladas por conta: o mesmo sessionId em contas diferentes são conversas distintas
+    public String memoryId(String sessionId) {
+        String session = sessionId != null && !sessionId.isBlank() ? sessionId.trim() : EPHEMERAL_PREFIX + UUID.randomUUID();
+        return GmailAccountContext.scoped(session);
+    }
+    
+    public void releaseIfEphemeral(String memoryId) {
+        if (isEphemeral(memoryId)) {
+            sessionStore.remove(memoryId);
+        }
+    }
+    
+    public void endSession(String sessionId) {
+        sessionStore.remove(GmailAccountContext.scoped(sessionId));
+    }
+    
+    private boolean isEphemeral(String memoryId) {
+        return memoryId.startsWith(GmailAccountContext.scoped(EPHEMERAL_PREFIX));
+    }
+    
+    /**
+     * Contrato do assistente; a implementação é criada em {@code AssistantConfig}.
+     */
     public interface GmailAiService {
         
-        @SystemMessage("""
+        String SYSTEM_PROMPT = """
                 Você é um assistente especializado em Gmail.
                 
                 ========== IDENTIDADE ==========
@@ -57,6 +121,7 @@ public class GmailAssistantService {
                 📖 LER EMAILS:
                   - Ver conteúdo completo de um email
                   - Ver detalhes (remetente, assunto, data)
+                  - Listar anexos (nome, tipo, tamanho e link de download)
                 
                 ✉️ ENVIAR EMAILS:
                   - Enviar novo email
@@ -67,6 +132,7 @@ public class GmailAssistantService {
                   - Marcar como não lido
                   - Mover para lixeira
                   - Deletar permanentemente
+                  - Ações em massa por lista de IDs ou por busca do Gmail
                 
                 🔍 BUSCAR:
                   - Buscar por remetente
@@ -94,6 +160,18 @@ public class GmailAssistantService {
                   - Formatar em Markdown
                   - Explicar o resultado de forma amigável
                 
+                ========== FORMATO DAS TOOLS ==========
+                
+                As listagens chegam compactas, uma linha por email:
+                  ref|de|data|flags|assunto
+                  - ref: referência curta (m1, m2...) — use-a como emailId nas outras tools
+                  - de: remetentes repetidos aparecem como @1, @2 (definidos no topo)
+                  - flags: N = não lido, I = importante, E = estrela
+                Se a listagem terminar com [mais: moreEmails("c3")], há mais emails:
+                chame moreEmails com esse cursor quando o usuário pedir mais, em vez de
+                repetir a listagem com um maxResults maior.
+                Apresente o resultado ao usuário de forma amigável, não no formato bruto.
+                
                 ========== EXEMPLOS DE INTERAÇÃO ==========
                 
                 EXEMPLO 1 - Listar Emails:
@@ -114,18 +192,27 @@ public class GmailAssistantService {
                 
                 EXEMPLO 5 - Marcar Como Lido:
                 Usuário: "Marca todos meus emails não lidos como lido"
-                IA: Chama listUnreadEmails(10), depois markAsRead() para cada um
+                IA: Chama bulkActionByQuery("is:unread in:inbox", MARK_READ)
                 
                 ========== DICAS IMPORTANTES ==========
                 
                 • Sempre que não conseguir fazer a ação automaticamente, explique o porquê
                 • Se o usuário solicitar algo complexo, quebre em passos
+                • Operações independentes (ex.: ler ou marcar vários emails) devem ser
+                  pedidas todas de uma vez, na mesma resposta — elas rodam em paralelo
+                • Para vários emails de uma vez, prefira bulkActionByIds ou bulkActionByQuery
+                  em vez de chamar markAsRead/trashEmail um a um
                 • Mantenha respostas claras e concisas
                 • Confirme antes de operações irreversíveis (deletar)
                 • Ofereça ajuda adicional se necessário
                 
                 Você está pronto para ajudar o usuário com seus emails! 🚀
-                """)
-        String chat(@UserMessage String userMessage);
+                """;
+        
+        @SystemMessage(SYSTEM_PROMPT)
+        Result<String> chat(@MemoryId String sessionId, @UserMessage String userMessage);
+        
+        @SystemMessage(SYSTEM_PROMPT)
+        TokenStream chatStream(@MemoryId String sessionId, @UserMessage String userMessage);
     }
 }
\ No newline at end of file
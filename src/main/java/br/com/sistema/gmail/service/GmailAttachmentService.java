@@ -0,0 +1,314 @@
+package br.com.sistema.gmail.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+
+import br.com.sistema.gmail.client.GmailAttachmentCache;
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageFetcher;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Anexos das mensagens: listagem a partir da árvore MIME e download via
+ * {@code users.messages.attachments.get}.
+ *
+ * O download nunca carrega o anexo inteiro no heap: a resposta JSON da API
+ * é lida como stream e o campo {@code data} (base64url) é decodificado
+ * direto para a saída. Um intervalo de bytes (HTTP Range) descarta o que
+ * vem antes e encerra a conexão assim que o fim do intervalo é escrito.
+ * Com o {@link GmailAttachmentCache} habilitado, um download inteiro é
+ * gravado no disco enquanto vai para a resposta, e os pedidos seguintes são
+ * servidos do arquivo. Um intervalo que ainda não está no cache vem direto
+ * do Gmail, sem esperar o anexo inteiro.
+ *
+ * Os anexos são identificados pelo {@code partId} da parte MIME, estável
+ * entre buscas — o {@code attachmentId} do Gmail muda a cada leitura da
+ * mensagem.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GmailAttachmentService {
+
+    private static final String USER = "me";
+    private static final String ATTACHMENT_FIELDS = "data";
+    // O Gmail envia base64url, às vezes com padding
+    private static final Base64Variant BASE64URL = Base64Variants.MODIFIED_FOR_URL.withPaddingAllowed();
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageFetcher messageFetcher;
+    private final GmailRateLimiter rateLimiter;
+    private final GmailAttachmentCache diskCache;
+    private final ObjectMapper objectMapper;
+
+    // ===============================
+    // Listagem
+    // ===============================
+
+    public List<Attachment> list(String messageId) throws IOException {
+        Message message = messageFetcher.fetchOne(clientProvider.getGmailService(), messageId, MessageProjection.DETAIL);
+
+        List<Attachment> attachments = new ArrayList<>();
+        if (message.getPayload() != null) {
+            collect(message.getPayload(), attachments);
+        }
+        return attachments;
+    }
+
+    public Optional<Attachment> find(String messageId, String partId) throws IOException {
+        return list(messageId).stream()
+                .filter(attachment -> attachment.partId().equals(partId))
+                .findFirst();
+    }
+
+    private void collect(MessagePart part, List<Attachment> attachments) {
+        boolean named = part.getFilename() != null && !part.getFilename().isEmpty();
+        boolean external = part.getBody() != null && part.getBody().getAttachmentId() != null;
+
+        if ((named || external) && part.getPartId() != null) {
+            attachments.add(new Attachment(
+                    part.getPartId(),
+                    named ? part.getFilename() : "parte-" + part.getPartId(),
+                    part.getMimeType() != null ? part.getMimeType() : "application/octet-stream",
+                    part.getBody() != null && part.getBody().getSize() != null ? part.getBody().getSize() : 0));
+        }
+
+        if (part.getParts() != null) {
+            for (MessagePart child : part.getParts()) {
+                collect(child, attachments);
+            }
+        }
+    }
+
+    // ===============================
+    // Download
+    // ===============================
+
+    /**
+     * Escreve em {@code out} os bytes {@code start..end} (inclusive) do anexo.
+     */
+    public void write(String messageId, Attachment attachment, long start, long end, OutputStream out)
+            throws IOException {
+
+        if (diskCache.isEnabled()) {
+            if (diskCache.read(messageId, attachment.partId(), file -> copy(file, start, end, out))) {
+                return;
+            }
+            if (isWhole(attachment, start, end)) {
+                diskCache.store(messageId, attachment.partId(),
+                        target -> download(messageId, attachment, new TeeOutputStream(target, out)));
+                return;
+            }
+        }
+
+        try {
+            download(messageId, attachment, new RangeOutputStream(out, start, end));
+        } catch (RangeOutputStream.RangeWritten e) {
+            log.debug("Intervalo {}-{} de {} entregue; restante descartado", start, end, attachment.filename());
+        }
+    }
+
+    private static boolean isWhole(Attachment attachment, long start, long end) {
+        return start == 0 && (end == Long.MAX_VALUE || end >= attachment.size() - 1);
+    }
+
+    private void download(String messageId, Attachment attachment, OutputStream target) throws IOException {
+        Gmail service = clientProvider.getGmailService();
+
+        // O attachmentId da mensagem em cache (o Gmail aceita qualquer um já emitido)
+        MessagePart part = findPart(messageFetcher.fetchOne(service, messageId, MessageProjection.DETAIL).getPayload(),
+                attachment.partId());
+        if (part == null || part.getBody() == null) {
+            throw new IOException("Anexo não encontrado: " + attachment.partId());
+        }
+
+        // Partes pequenas já vêm embutidas na mensagem
+        if (part.getBody().getAttachmentId() == null) {
+            String data = part.getBody().getData();
+            if (data != null) {
+                target.write(Base64.getUrlDecoder().decode(data));
+            }
+            return;
+        }
+
+        HttpResponse response = rateLimiter.executeUnparsed(GmailOperation.ATTACHMENTS_GET, service.users().messages()
+                .attachments()
+                .get(USER, messageId, part.getBody().getAttachmentId())
+                .setFields(ATTACHMENT_FIELDS));
+
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(response.getContent());
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && ATTACHMENT_FIELDS.equals(parser.currentName())) {
+                    parser.nextToken();
+                    parser.readBinaryValue(BASE64URL, target);
+                    // Lido até o fim: a conexão volta ao pool
+                    parser.close();
+                    return;
+                }
+            }
+            throw new IOException("Resposta sem o conteúdo do anexo " + attachment.partId());
+
+        } finally {
+            // Interrompido no meio (Range atendido, cliente desconectou): aborta sem drenar o restante
+            response.disconnect();
+        }
+    }
+
+    private MessagePart findPart(MessagePart part, String partId) {
+        if (part == null) {
+            return null;
+        }
+        if (partId.equals(part.getPartId())) {
+            return part;
+        }
+        if (part.getParts() != null) {
+            for (MessagePart child : part.getParts()) {
+                MessagePart found = findPart(child, partId);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Zero-copy do arquivo para a resposta quando possível
+    private void copy(Path file, long start, long end, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long last = Math.min(end, channel.size() - 1);
+            while (position <= last) {
+                long transferred = channel.transferTo(position, last - position + 1, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    /**
+     * @param partId   identificador da parte MIME (ex.: "1", "2.1")
+     * @param size     tamanho decodificado, em bytes
+     */
+    public record Attachment(String partId, String filename, String mimeType, long size) {}
+
+    // ===============================
+    // Cópia para o cache
+    // ===============================
+
+    /**
+     * Escreve no arquivo do cache e na resposta ao mesmo tempo.
+     */
+    static final class TeeOutputStream extends FilterOutputStream {
+
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream out, OutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            copy.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            copy.flush();
+        }
+    }
+
+    // ===============================
+    // Intervalo de bytes
+    // ===============================
+
+    /**
+     * Repassa só os bytes {@code start..end}; ao passar do fim, interrompe o
+     * download com {@link RangeWritten}.
+     */
+    static final class RangeOutputStream extends FilterOutputStream {
+
+        private final long start;
+        private final long end;
+        private long position;
+
+        RangeOutputStream(OutputStream out, long start, long end) {
+            super(out);
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            long chunkEnd = position + length - 1;
+            long from = Math.max(start, position);
+            long to = Math.min(end, chunkEnd);
+            if (from <= to) {
+                out.write(bytes, offset + (int) (from - position), (int) (to - from + 1));
+            }
+            position += length;
+            if (position > end) {
+                throw RangeWritten.INSTANCE;
+            }
+        }
+
+        static final class RangeWritten extends IOException {
+
+            static final RangeWritten INSTANCE = new RangeWritten();
+
+            private RangeWritten() {
+                super("Intervalo completo");
+            }
+
+            // Sinal de controle, não erro: sem stack trace
+            @Override
+            public synchronized Throwable fillInStackTrace() {
+                return this;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.sistema.gmail.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.BatchDeleteMessagesRequest;
+import com.google.api.services.gmail.model.BatchModifyMessagesRequest;
+import com.google.api.services.gmail.model.ListMessagesResponse;
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageCache;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Operações em massa na caixa de entrada.
+ *
+ * Os alvos vêm de uma lista de IDs ou de uma busca do Gmail (paginada até
+ * {@code gmail.bulk.max-messages}) e as alterações são aplicadas com
+ * {@code batchModify} / {@code batchDelete} em blocos de até 1000 IDs,
+ * o limite da API — uma requisição por bloco em vez de uma por email.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GmailBulkService {
+
+    private static final String USER = "me";
+    private static final int CHUNK_SIZE = 1000;
+    private static final long PAGE_SIZE = 500;
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageCache messageCache;
+    private final GmailRateLimiter rateLimiter;
+    private final MailboxSyncService mailboxSync;
+
+    @Value("${gmail.bulk.max-messages:5000}")
+    private int maxMessages;
+
+    public record BulkResult(BulkAction action, int matched, int processed, int chunks, boolean capped) {}
+
+    // ===============================
+    // Execução
+    // ===============================
+
+    public BulkResult apply(BulkAction action, List<String> ids) throws IOException {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id != null && !id.isBlank()) {
+                unique.add(id.trim());
+            }
+        }
+
+        List<String> targets = new ArrayList<>(unique);
+        boolean capped = targets.size() > maxMessages;
+        if (capped) {
+            targets = targets.subList(0, maxMessages);
+        }
+        return execute(action, targets, capped);
+    }
+
+    public BulkResult applyToQuery(BulkAction action, String query) throws IOException {
+        Gmail service = clientProvider.getGmailService();
+
+        List<String> targets = new ArrayList<>();
+        String pageToken = null;
+        boolean capped = false;
+
+        do {
+            ListMessagesResponse response = rateLimiter.execute(GmailOperation.MESSAGES_LIST, service.users().messages()
+                    .list(USER)
+                    .setQ(query)
+                    .setMaxResults(PAGE_SIZE)
+                    .setPageToken(pageToken)
+                    .setFields(MessageProjection.LIST_FIELDS));
+
+            if (response.getMessages() != null) {
+                for (Message message : response.getMessages()) {
+                    if (targets.size() >= maxMessages) {
+                        capped = true;
+                        break;
+                    }
+                    targets.add(message.getId());
+                }
+            }
+            pageToken = response.getNextPageToken();
+
+        } while (pageToken != null && !capped);
+
+        log.info("🔎 {} emails encontrados para '{}'", targets.size(), query);
+        return execute(action, targets, capped || pageToken != null);
+    }
+
+    private BulkResult execute(BulkAction action, List<String> targets, boolean capped) throws IOException {
+        if (targets.isEmpty()) {
+            return new BulkResult(action, 0, 0, 0, false);
+        }
+
+        Gmail service = clientProvider.getGmailService();
+        int chunks = (targets.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int processed = 0;
+
+        for (int start = 0, chunk = 1; start < targets.size(); start += CHUNK_SIZE, chunk++) {
+            List<String> ids = targets.subList(start, Math.min(start + CHUNK_SIZE, targets.size()));
+
+            if (action == BulkAction.DELETE) {
+                rateLimiter.execute(GmailOperation.MESSAGES_BATCH_DELETE, service.users().messages()
+                        .batchDelete(USER, new BatchDeleteMessagesRequest().setIds(ids)));
+            } else {
+                rateLimiter.execute(GmailOperation.MESSAGES_BATCH_MODIFY, service.users().messages()
+                        .batchModify(USER, new BatchModifyMessagesRequest()
+                                .setIds(ids)
+                                .setAddLabelIds(action.getAddLabelIds())
+                                .setRemoveLabelIds(action.getRemoveLabelIds())));
+            }
+
+            applyLocally(action, ids);
+            processed += ids.size();
+
+            log.info("📦 Bloco {}/{}: {}/{} emails {}", chunk, chunks, processed, targets.size(), action.getDescription());
+        }
+
+        return new BulkResult(action, targets.size(), processed, chunks, capped);
+    }
+
+    // batchModify/batchDelete não devolvem as mensagens: aplica as labels localmente
+    private void applyLocally(BulkAction action, List<String> ids) {
+        for (String id : ids) {
+            if (action == BulkAction.DELETE) {
+                messageCache.invalidate(id);
+                mailboxSync.remove(id);
+            } else {
+                messageCache.applyLabelChange(id, action.getAddLabelIds(), action.getRemoveLabelIds());
+                mailboxSync.applyLabelChange(id, action.getAddLabelIds(), action.getRemoveLabelIds());
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.sistema.gmail.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+import br.com.sistema.gmail.service.GmailAssistantService.GmailAiService;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Chat com resposta em streaming (Server-Sent Events).
+ *
+ * Envia os tokens do Gemini à medida que chegam e eventos de progresso das
+ * tools ("Buscando 10 emails…"), em vez de esperar a resposta completa.
+ *
+ * Eventos: {@code token}, {@code tool}, {@code tool-done}, {@code done} e {@code error}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GmailStreamingService {
+
+    private static final TypeReference<Map<String, Object>> ARGUMENTS = new TypeReference<>() {};
+
+    private final GmailAiService aiService;
+    private final GmailAssistantService assistantService;
+    private final ObjectMapper objectMapper;
+    private final AssistantMetrics metrics;
+
+    @Value("${gmail.chat.stream-timeout:PT2M}")
+    private Duration timeout;
+
+    public SseEmitter stream(String userMessage) {
+        return stream(null, userMessage);
+    }
+
+    public SseEmitter stream(String sessionId, String userMessage) {
+        log.info("📡 Iniciando chat em streaming");
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        String memoryId = assistantService.memoryId(sessionId);
+        long start = System.nanoTime();
+        AtomicInteger toolCalls = new AtomicInteger();
+
+        try {
+            aiService.chatStream(memoryId, userMessage)
+                    .onPartialResponse(token -> send(emitter, "token", token))
+                    .beforeToolExecution(before -> send(emitter, "tool", describe(before.request())))
+                    .onToolExecuted(execution -> {
+                        toolCalls.incrementAndGet();
+                        send(emitter, "tool-done", execution.request().name());
+                    })
+                    .onCompleteResponse(response -> {
+                        assistantService.releaseIfEphemeral(memoryId);
+                        metrics.recordChat("stream", "llm", System.nanoTime() - start, toolCalls.get());
+                        send(emitter, "done", "");
+                        emitter.complete();
+                        log.info("✅ Streaming concluído");
+                    })
+                    .onError(error -> {
+                        assistantService.releaseIfEphemeral(memoryId);
+                        metrics.recordChat("stream", "error", System.nanoTime() - start, toolCalls.get());
+                        log.error("❌ Erro no streaming", error);
+                        send(emitter, "error", "Erro ao processar mensagem: " + error.getMessage());
+                        emitter.complete();
+                    })
+                    .start();
+
+        } catch (Exception e) {
+            assistantService.releaseIfEphemeral(memoryId);
+            metrics.recordChat("stream", "error", System.nanoTime() - start, 0);
+            log.error("❌ Erro ao iniciar streaming", e);
+            send(emitter, "error", "Erro ao processar mensagem: " + e.getMessage());
+            emitter.complete();
+        }
+
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String event, String data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou; o restante do stream é descartado
+            log.debug("Cliente SSE desconectado: {}", e.getMessage());
+        }
+    }
+
+    // Mensagem amigável de progresso para cada tool
+    private String describe(ToolExecutionRequest request) {
+        Map<String, Object> args = parseArguments(request.arguments());
+
+        return switch (request.name()) {
+            case "listEmails" -> "📬 Buscando " + args.getOrDefault("maxResults", 10) + " emails…";
+            case "listUnreadEmails" -> "🔵 Buscando emails não lidos…";
+            case "moreEmails" -> "📬 Buscando mais emails…";
+            case "searchEmails" -> "🔍 Buscando \"" + args.getOrDefault("query", "") + "\"…";
+            case "getEmailContent" -> "📖 Abrindo email…";
+            case "listAttachments" -> "📎 Verificando anexos…";
+            case "sendEmail" -> "✉️ Enviando email para " + args.getOrDefault("to", "") + "…";
+            case "markAsRead", "markAsUnread" -> "✅ Atualizando email…";
+            case "trashEmail", "deleteEmail" -> "🗑️ Removendo email…";
+            case "bulkActionByIds", "bulkActionByQuery" -> "📦 Aplicando " + args.getOrDefault("action", "") + " em massa…";
+            default -> "🔧 Executando " + request.name() + "…";
+        };
+    }
+
+    private Map<String, Object> parseArguments(String arguments) {
+        try {
+            return arguments == null || arguments.isBlank() ? Map.of() : objectMapper.readValue(arguments, ARGUMENTS);
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package br.com.sistema.gmail.service;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import br.com.sistema.gmail.models.Email;
+
+/**
+ * Modelo local de uma caixa de entrada sincronizada.
+ *
+ * Mantém os emails indexados por ID e ordenados do mais recente para o mais
+ * antigo, junto com o {@code historyId} até onde o estado foi sincronizado.
+ *
+ * Escritas são feitas apenas pela sincronização (e pelo write-through das
+ * tools); leituras podem ocorrer de qualquer thread. Toda escrita também
+ * atualiza o {@link EmailSearchIndex} da caixa.
+ *
+ * Cada caixa tem a sua trava de sincronização: uma conta lenta não impede
+ * as outras de sincronizar.
+ */
+public class MailboxState {
+
+    private static final Comparator<Email> NEWEST_FIRST = Comparator
+            .comparing((Email email) -> email.getDataRecebimento() != null ? email.getDataRecebimento() : 0L)
+            .reversed()
+            .thenComparing(Email::getId);
+
+    private final Map<String, Email> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Email> ordered = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final EmailSearchIndex index = new EmailSearchIndex();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private volatile BigInteger historyId;
+    private volatile Instant lastSyncedAt;
+    private volatile boolean complete;
+    private volatile boolean pendingChanges;
+
+    // ===============================
+    // Leitura
+    // ===============================
+
+    public Email get(String id) {
+        return byId.get(id);
+    }
+
+    public boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public List<Email> latest(int limit, Predicate<Email> filter) {
+        List<Email> result = new ArrayList<>(Math.min(limit, 64));
+        for (Email email : ordered) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter.test(email)) {
+                result.add(email);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Busca no índice local; retorna os emails do mais relevante para o menos relevante.
+     */
+    public List<Email> search(String query, int limit) {
+        List<Email> result = new ArrayList<>();
+        for (String id : index.search(query, limit)) {
+            Email email = byId.get(id);
+            if (email != null) {
+                result.add(email);
+            }
+        }
+        return result;
+    }
+
+    public BigInteger getHistoryId() {
+        return historyId;
+    }
+
+    public Instant getLastSyncedAt() {
+        return lastSyncedAt;
+    }
+
+    /**
+     * Indica se chegou notificação (push) ou escrita depois da última
+     * sincronização: o estado pode não refletir a caixa até a próxima.
+     */
+    public boolean hasPendingChanges() {
+        return pendingChanges;
+    }
+
+    /**
+     * Indica se o estado contém a caixa de entrada inteira
+     * (a listagem inicial não foi cortada pelo limite).
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    // ===============================
+    // Sincronização
+    // ===============================
+
+    /**
+     * Reserva a caixa para uma sincronização. Retorna {@code false} se outra
+     * já estava em andamento nesta mesma caixa.
+     */
+    public boolean tryLockSync() {
+        return syncLock.tryLock();
+    }
+
+    public void unlockSync() {
+        syncLock.unlock();
+    }
+
+    // ===============================
+    // Escrita
+    // ===============================
+
+    public synchronized void replaceAll(Collection<Email> emails, BigInteger newHistoryId, boolean isComplete) {
+        byId.clear();
+        ordered.clear();
+        index.clear();
+        emails.forEach(this::put);
+        this.complete = isComplete;
+        markSynced(newHistoryId);
+    }
+
+    public synchronized void put(Email email) {
+        Email previous = byId.put(email.getId(), email);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(email);
+        index.add(email);
+    }
+
+    public void indexBody(String id, String text) {
+        if (byId.containsKey(id)) {
+            index.addBody(id, text);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        Email previous = byId.remove(id);
+        if (previous != null) {
+            ordered.remove(previous);
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Remove os emails mais antigos além do limite informado.
+     */
+    public synchronized void trimTo(int maxSize) {
+        while (byId.size() > maxSize) {
+            Email oldest = ordered.pollLast();
+            if (oldest == null) {
+                break;
+            }
+            byId.remove(oldest.getId());
+            index.remove(oldest.getId());
+            complete = false;
+        }
+    }
+
+    public void markPendingChanges() {
+        this.pendingChanges = true;
+    }
+
+    public void clearPendingChanges() {
+        this.pendingChanges = false;
+    }
+
+    public void markSynced(BigInteger newHistoryId) {
+        this.historyId = newHistoryId;
+        this.lastSyncedAt = Instant.now();
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        ordered.clear();
+        index.clear();
+        historyId = null;
+        lastSyncedAt = null;
+        complete = false;
+        pendingChanges = false;
+    }
+}
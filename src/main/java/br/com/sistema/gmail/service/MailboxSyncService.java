@@ -0,0 +1,437 @@
+package br.com.sistema.gmail.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryLabelAdded;
+import com.google.api.services.gmail.model.HistoryLabelRemoved;
+import com.google.api.services.gmail.model.HistoryMessageAdded;
+import com.google.api.services.gmail.model.HistoryMessageDeleted;
+import com.google.api.services.gmail.model.ListHistoryResponse;
+import com.google.api.services.gmail.model.ListMessagesResponse;
+import com.google.api.services.gmail.model.Message;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.client.GmailAccountRegistry;
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageCache;
+import br.com.sistema.gmail.client.GmailMessageFetcher;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.models.Email;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sincronização incremental da caixa de entrada.
+ *
+ * Faz uma listagem completa inicial (até {@code gmail.sync.max-messages})
+ * e depois aplica os deltas de {@code users.history.list} a partir do último
+ * {@code historyId}, mantendo um {@link MailboxState} local.
+ *
+ * As tools consultam o estado local (listagens e o índice de busca) enquanto
+ * ele estiver fresco e voltam para chamadas ao vivo quando a sincronização
+ * está atrasada ou desabilitada.
+ *
+ * Cada conta configurada tem o seu próprio estado e a sua própria trava:
+ * o agendamento as sincroniza em sequência, mas uma notificação push de uma
+ * conta não espera a sincronização de outra.
+ *
+ * Com notificações push ({@code gmail.push.enabled}), o estado é marcado
+ * como pendente a cada notificação ou escrita das tools e volta a ficar
+ * fresco na sincronização seguinte; enquanto não há mudanças, continua
+ * fresco por {@code gmail.push.max-staleness} e o historyId atual sai dele,
+ * sem chamadas ao Gmail.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MailboxSyncService {
+
+    private static final String USER = "me";
+    private static final String INBOX = "INBOX";
+    private static final long PAGE_SIZE = 500;
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageFetcher messageFetcher;
+    private final GmailMessageCache messageCache;
+    private final GmailRateLimiter rateLimiter;
+    private final EmailMapper emailMapper;
+    private final GmailAccountRegistry accountRegistry;
+
+    private final Map<String, MailboxState> states = new ConcurrentHashMap<>();
+
+    @Value("${gmail.sync.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gmail.sync.max-messages:500}")
+    private int maxMessages;
+
+    @Value("${gmail.sync.max-staleness:PT2M}")
+    private Duration maxStaleness;
+
+    @Value("${gmail.push.enabled:false}")
+    private boolean pushEnabled;
+
+    // Rede de segurança caso as notificações parem (ex.: watch expirado)
+    @Value("${gmail.push.max-staleness:PT30M}")
+    private Duration pushMaxStaleness;
+
+    // ===============================
+    // Sincronização
+    // ===============================
+
+    @Scheduled(initialDelayString = "${gmail.sync.initial-delay:PT5S}",
+               fixedDelayString = "${gmail.sync.interval:PT30S}")
+    public void scheduledSync() {
+        if (!enabled) {
+            return;
+        }
+        for (String accountId : accountRegistry.accountIds()) {
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(accountId)) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * Sincroniza a conta atual. Retorna {@code false} se outra sincronização
+     * da mesma conta já estava em andamento (nada foi feito).
+     */
+    public boolean sync() {
+        MailboxState state = state();
+        if (!state.tryLockSync()) {
+            log.debug("⏳ Sincronização da conta {} já em andamento", GmailAccountContext.current());
+            return false;
+        }
+        try {
+            Gmail service = clientProvider.getGmailService();
+
+            // Mudanças notificadas a partir daqui marcam o estado de novo
+            state.clearPendingChanges();
+
+            if (state.getHistoryId() == null) {
+                fullSync(service);
+            } else {
+                incrementalSync(service);
+            }
+
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 404) {
+                log.warn("⚠️ historyId expirado, refazendo sincronização completa");
+                state.clear();
+            } else {
+                log.warn("⚠️ Falha na sincronização: {}", e.getMessage());
+                state.markPendingChanges();
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Falha na sincronização: {}", e.getMessage());
+            state.markPendingChanges();
+        } finally {
+            state.unlockSync();
+        }
+        return true;
+    }
+
+    /**
+     * Registra uma notificação push da conta atual. Retorna {@code false}
+     * quando o historyId notificado já foi sincronizado (nada a fazer).
+     */
+    public boolean onPushNotification(BigInteger historyId) {
+        messageCache.observe(historyId);
+        BigInteger synced = state().getHistoryId();
+        if (synced != null && historyId != null && historyId.compareTo(synced) <= 0) {
+            return false;
+        }
+        state().markPendingChanges();
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void fullSync(Gmail service) throws IOException {
+        log.info("🔄 Sincronização completa da caixa de entrada");
+
+        // historyId lido antes da listagem para não perder mudanças concorrentes
+        BigInteger historyId = fetchHistoryId(service);
+        messageCache.observe(historyId);
+
+        List<String> ids = new ArrayList<>();
+        String pageToken = null;
+
+        do {
+            ListMessagesResponse page = rateLimiter.execute(GmailOperation.MESSAGES_LIST, service.users().messages()
+                    .list(USER)
+                    .setQ("in:inbox")
+                    .setMaxResults(Math.min(PAGE_SIZE, maxMessages - ids.size()))
+                    .setPageToken(pageToken)
+                    .setFields(MessageProjection.LIST_FIELDS));
+
+            if (page.getMessages() != null) {
+                page.getMessages().forEach(message -> ids.add(message.getId()));
+            }
+            pageToken = page.getNextPageToken();
+
+        } while (pageToken != null && ids.size() < maxMessages);
+
+        List<Email> emails = messageFetcher.fetch(service, ids, MessageProjection.LISTING).stream()
+                .map(emailMapper::toEmail)
+                .toList();
+
+        state().replaceAll(emails, historyId, pageToken == null);
+
+        log.info("✅ {} emails sincronizados (historyId {})", emails.size(), historyId);
+    }
+
+    private void incrementalSync(Gmail service) throws IOException {
+        Set<String> toFetch = new LinkedHashSet<>();
+        BigInteger from = state().getHistoryId();
+        BigInteger latest = from;
+        String pageToken = null;
+        int changes = 0;
+
+        do {
+            ListHistoryResponse page = rateLimiter.execute(GmailOperation.HISTORY_LIST, service.users().history()
+                    .list(USER)
+                    .setStartHistoryId(state().getHistoryId())
+                    .setPageToken(pageToken)
+                    .setFields(MessageProjection.HISTORY_FIELDS));
+
+            if (page.getHistory() != null) {
+                for (History history : page.getHistory()) {
+                    apply(history, toFetch);
+                    changes++;
+                }
+            }
+            if (page.getHistoryId() != null) {
+                latest = page.getHistoryId();
+            }
+            pageToken = page.getNextPageToken();
+
+        } while (pageToken != null);
+
+        if (!toFetch.isEmpty()) {
+            for (Message message : messageFetcher.fetch(service, new ArrayList<>(toFetch), MessageProjection.LISTING)) {
+                if (isInInbox(message)) {
+                    state().put(emailMapper.toEmail(message));
+                }
+            }
+        }
+
+        state().trimTo(maxMessages);
+        state().markSynced(latest);
+        // Todas as alterações desde from já passaram pelo cache de mensagens
+        messageCache.markSynced(from, latest);
+
+        if (changes > 0) {
+            log.info("🔄 {} alterações aplicadas (historyId {})", changes, latest);
+        }
+    }
+
+    private void apply(History history, Set<String> toFetch) {
+        if (history.getMessagesAdded() != null) {
+            for (HistoryMessageAdded added : history.getMessagesAdded()) {
+                onChanged(added.getMessage(), history.getId(), toFetch);
+            }
+        }
+        if (history.getLabelsAdded() != null) {
+            for (HistoryLabelAdded labelAdded : history.getLabelsAdded()) {
+                onChanged(labelAdded.getMessage(), history.getId(), toFetch);
+            }
+        }
+        if (history.getLabelsRemoved() != null) {
+            for (HistoryLabelRemoved labelRemoved : history.getLabelsRemoved()) {
+                onChanged(labelRemoved.getMessage(), history.getId(), toFetch);
+            }
+        }
+        if (history.getMessagesDeleted() != null) {
+            for (HistoryMessageDeleted deleted : history.getMessagesDeleted()) {
+                String id = deleted.getMessage().getId();
+                messageCache.invalidate(id);
+                state().remove(id);
+                toFetch.remove(id);
+            }
+        }
+    }
+
+    private void onChanged(Message message, BigInteger historyId, Set<String> toFetch) {
+        String id = message.getId();
+
+        message.setHistoryId(historyId);
+        messageCache.applyModification(message);
+
+        if (!isInInbox(message)) {
+            state().remove(id);
+            toFetch.remove(id);
+            return;
+        }
+
+        Email local = state().get(id);
+        if (local != null) {
+            emailMapper.applyLabels(local, message.getLabelIds());
+        } else {
+            toFetch.add(id);
+        }
+    }
+
+    // ===============================
+    // Consulta ao estado local
+    // ===============================
+
+    /**
+     * Indica se o estado local pode responder no lugar do Gmail: sincronizado
+     * há pouco, sem notificações pendentes e no maior historyId já visto da
+     * caixa. Um historyId mais novo lido do perfil (ETag, cache de respostas)
+     * tira o estado de uso até a próxima sincronização.
+     */
+    public boolean isFresh() {
+        Instant lastSyncedAt = state().getLastSyncedAt();
+        return enabled
+                && lastSyncedAt != null
+                && !state().hasPendingChanges()
+                && Duration.between(lastSyncedAt, Instant.now()).compareTo(pushEnabled ? pushMaxStaleness : maxStaleness) < 0
+                && isAtLatestHistoryId();
+    }
+
+    private boolean isAtLatestHistoryId() {
+        BigInteger latest = messageCache.latestHistoryId();
+        BigInteger synced = state().getHistoryId();
+        return latest == null || (synced != null && synced.compareTo(latest) >= 0);
+    }
+
+    /**
+     * Retorna os emails mais recentes do estado local que atendem ao filtro,
+     * ou vazio quando o estado está desatualizado ou não cobre o limite pedido.
+     */
+    public Optional<List<Email>> findLocal(int limit, Predicate<Email> filter) {
+        if (!isFresh()) {
+            return Optional.empty();
+        }
+
+        List<Email> result = state().latest(limit, filter);
+        if (result.size() < limit && !state().isComplete()) {
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Busca no índice local, ou vazio quando o estado está desatualizado.
+     */
+    public Optional<List<Email>> searchLocal(String query, int limit) {
+        if (!isFresh()) {
+            return Optional.empty();
+        }
+        return Optional.of(state().search(query, limit));
+    }
+
+    /**
+     * historyId atual da caixa, lido direto do Gmail (não do estado local,
+     * que pode estar até um intervalo de sincronização atrasado). Com push,
+     * o estado fresco e sem notificações pendentes já é o historyId atual.
+     *
+     * O valor vira a marca d'água do {@link GmailMessageCache}: o que for
+     * lido depois dele reflete a caixa nesse historyId ou mais nova.
+     */
+    public BigInteger currentHistoryId() throws IOException {
+        BigInteger historyId = pushEnabled && isFresh()
+                ? state().getHistoryId()
+                : fetchHistoryId(clientProvider.getGmailService());
+        messageCache.observe(historyId);
+        return historyId;
+    }
+
+    private BigInteger fetchHistoryId(Gmail service) throws IOException {
+        return rateLimiter.execute(GmailOperation.GET_PROFILE, service.users()
+                .getProfile(USER)
+                .setFields(MessageProjection.PROFILE_FIELDS))
+                .getHistoryId();
+    }
+
+    public void indexBody(String id, String text) {
+        state().indexBody(id, text);
+    }
+
+    public MailboxState getState() {
+        return state();
+    }
+
+    // Estado da conta atual
+    private MailboxState state() {
+        return states.computeIfAbsent(GmailAccountContext.current(), accountId -> new MailboxState());
+    }
+
+    // ===============================
+    // Write-through das tools
+    // ===============================
+
+    public void applyModification(Message modified) {
+        afterWrite();
+        Email local = modified != null ? state().get(modified.getId()) : null;
+        if (local == null) {
+            return;
+        }
+        if (isInInbox(modified)) {
+            emailMapper.applyLabels(local, modified.getLabelIds());
+        } else {
+            state().remove(modified.getId());
+        }
+    }
+
+    /**
+     * Write-through de operações em massa, que não devolvem as labels finais.
+     */
+    public void applyLabelChange(String id, List<String> added, List<String> removed) {
+        afterWrite();
+        Email local = state().get(id);
+        if (local == null) {
+            return;
+        }
+        if (added.contains("TRASH") || removed.contains(INBOX)) {
+            state().remove(id);
+            return;
+        }
+        if (added.contains("UNREAD")) {
+            local.setNaoLido(true);
+        } else if (removed.contains("UNREAD")) {
+            local.setNaoLido(false);
+        }
+    }
+
+    public void remove(String id) {
+        afterWrite();
+        state().remove(id);
+    }
+
+    // Com push, o historyId do estado deixa de ser o atual até a notificação desta escrita ser sincronizada
+    private void afterWrite() {
+        if (pushEnabled) {
+            state().markPendingChanges();
+        }
+    }
+
+    private boolean isInInbox(Message message) {
+        return message.getLabelIds() != null && message.getLabelIds().contains(INBOX);
+    }
+}
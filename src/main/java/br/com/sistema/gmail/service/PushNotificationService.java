@@ -0,0 +1,216 @@
+package br.com.sistema.gmail.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.client.GmailAccountRegistry;
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Notificações push do Gmail ({@code users.watch} + Cloud Pub/Sub).
+ *
+ * Cada notificação traz só o endereço da caixa e o novo {@code historyId}.
+ * Ela marca o estado daquela conta como pendente e agenda uma sincronização
+ * incremental ({@code history.list}), que atualiza o estado local e invalida
+ * o cache de mensagens. Notificações da mesma conta dentro de
+ * {@code gmail.push.coalesce-window} viram uma única sincronização; as de um
+ * historyId já sincronizado são descartadas. Sem mudanças na caixa, nenhuma
+ * chamada é feita.
+ *
+ * O endereço é associado à conta pelo {@code users.getProfile} de cada conta
+ * configurada, uma única vez. Endereços que não pertencem a nenhuma conta
+ * ficam registrados por {@code gmail.push.unknown-address-ttl}, sem novas
+ * leituras de perfil a cada notificação.
+ *
+ * O endpoint fica fora da API key: a autenticação é o
+ * {@code gmail.push.verification-token} na URL da assinatura, obrigatório
+ * com o push habilitado.
+ */
+@Service
+@Slf4j
+public class PushNotificationService {
+
+    private static final String USER = "me";
+
+    private final MailboxSyncService mailboxSync;
+    private final GmailAccountRegistry accountRegistry;
+    private final GmailClientProvider clientProvider;
+    private final GmailRateLimiter rateLimiter;
+    private final AssistantMetrics metrics;
+    private final TaskScheduler scheduler;
+
+    private final boolean enabled;
+    private final Duration coalesceWindow;
+    private final byte[] verificationToken;
+
+    private final Map<String, String> accountsByAddress = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> unknownAddresses;
+    // Sem synchronized: a descoberta faz chamadas HTTP e prenderia a carrier thread
+    private final ReentrantLock discoveryLock = new ReentrantLock();
+    // Contas com sincronização já agendada
+    private final Map<String, Boolean> scheduled = new ConcurrentHashMap<>();
+
+    public PushNotificationService(MailboxSyncService mailboxSync,
+                                   GmailAccountRegistry accountRegistry,
+                                   GmailClientProvider clientProvider,
+                                   GmailRateLimiter rateLimiter,
+                                   AssistantMetrics metrics,
+                                   TaskScheduler scheduler,
+                                   @Value("${gmail.push.enabled:false}") boolean enabled,
+                                   @Value("${gmail.push.coalesce-window:PT2S}") Duration coalesceWindow,
+                                   @Value("${gmail.push.verification-token:}") String verificationToken,
+                                   @Value("${gmail.push.unknown-address-ttl:PT10M}") Duration unknownAddressTtl) {
+
+        if (enabled && (verificationToken == null || verificationToken.isBlank())) {
+            throw new IllegalStateException("gmail.push.enabled=true exige gmail.push.verification-token "
+                    + "(GMAIL_PUSH_TOKEN): sem ele, qualquer um poderia disparar sincronizações pelo endpoint de push");
+        }
+
+        this.mailboxSync = mailboxSync;
+        this.accountRegistry = accountRegistry;
+        this.clientProvider = clientProvider;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.coalesceWindow = coalesceWindow;
+        this.verificationToken = verificationToken != null ? verificationToken.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.unknownAddresses = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(unknownAddressTtl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled && mailboxSync.isEnabled();
+    }
+
+    /**
+     * Confere o token da URL da assinatura (comparação em tempo constante).
+     */
+    public boolean isAuthorized(String token) {
+        return verificationToken.length > 0 && token != null
+                && MessageDigest.isEqual(verificationToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Registra a notificação e agenda a sincronização da conta, se ainda
+     * não houver uma agendada.
+     */
+    public void onNotification(String emailAddress, BigInteger historyId) {
+        String account = accountFor(emailAddress);
+        if (account == null) {
+            log.warn("⚠️ Notificação push de caixa não configurada: {}", emailAddress);
+            metrics.recordPush("unknown_account");
+            return;
+        }
+
+        try (GmailAccountContext.Scope scope = GmailAccountContext.open(account)) {
+            if (!mailboxSync.onPushNotification(historyId)) {
+                log.debug("Notificação push já sincronizada ({} historyId {})", account, historyId);
+                metrics.recordPush("stale");
+                return;
+            }
+        }
+
+        if (scheduled.putIfAbsent(account, Boolean.TRUE) != null) {
+            metrics.recordPush("coalesced");
+            return;
+        }
+        metrics.recordPush("scheduled");
+        schedule(account, coalesceWindow);
+    }
+
+    private void schedule(String account, Duration delay) {
+        scheduler.schedule(() -> refresh(account), Instant.now().plus(delay));
+    }
+
+    private void refresh(String account) {
+        // Liberado antes de sincronizar: notificações durante a sincronização agendam a próxima
+        scheduled.remove(account);
+
+        try (GmailAccountContext.Scope scope = GmailAccountContext.open(account)) {
+            if (mailboxSync.sync()) {
+                log.info("📨 Caixa {} atualizada por notificação push", account);
+                return;
+            }
+        }
+
+        // Outra sincronização em andamento: tenta de novo após a janela
+        if (scheduled.putIfAbsent(account, Boolean.TRUE) == null) {
+            schedule(account, coalesceWindow);
+        }
+    }
+
+    // ===============================
+    // Endereço → conta
+    // ===============================
+
+    private String accountFor(String emailAddress) {
+        if (emailAddress == null || emailAddress.isBlank()) {
+            return null;
+        }
+        String address = emailAddress.trim().toLowerCase(Locale.ROOT);
+
+        String account = accountsByAddress.get(address);
+        if (account != null || unknownAddresses.getIfPresent(address) != null) {
+            return account;
+        }
+
+        discoveryLock.lock();
+        try {
+            // Outra notificação pode ter feito a descoberta enquanto esta esperava
+            account = accountsByAddress.get(address);
+            if (account == null && unknownAddresses.getIfPresent(address) == null) {
+                discoverAddresses();
+                account = accountsByAddress.get(address);
+                if (account == null) {
+                    unknownAddresses.put(address, Boolean.TRUE);
+                }
+            }
+            return account;
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+
+    private void discoverAddresses() {
+        for (String accountId : accountRegistry.accountIds()) {
+            if (accountsByAddress.containsValue(accountId)) {
+                continue;
+            }
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(accountId)) {
+                String address = rateLimiter.execute(GmailOperation.GET_PROFILE, clientProvider.getGmailService().users()
+                        .getProfile(USER)
+                        .setFields(MessageProjection.PROFILE_ADDRESS_FIELDS))
+                        .getEmailAddress();
+                if (address != null) {
+                    accountsByAddress.put(address.toLowerCase(Locale.ROOT), accountId);
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ Não foi possível ler o endereço da conta {}: {}", accountId, e.getMessage());
+            }
+        }
+    }
+}
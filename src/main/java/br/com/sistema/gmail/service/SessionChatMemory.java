@@ -0,0 +1,206 @@
+package br.com.sistema.gmail.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+
+/**
+ * Memória de uma sessão de chat com janela limitada.
+ *
+ * Guarda as últimas {@code maxMessages} mensagens; as mais antigas saem da
+ * janela e viram um resumo extrativo (falas do usuário e do assistente,
+ * encurtadas) que é anexado ao system prompt. O turno em andamento nunca é
+ * cortado, para não separar chamadas de tools dos seus resultados, e a
+ * janela sempre começa numa mensagem do usuário.
+ */
+public class SessionChatMemory implements ChatMemory {
+
+    private static final int MESSAGE_OVERHEAD = 64;
+    private static final int USER_LINE_MAX = 200;
+    private static final int AI_LINE_MAX = 300;
+    private static final String SUMMARY_HEADER = "\n\n========== RESUMO DA CONVERSA ANTERIOR ==========\n";
+
+    private final Object id;
+    private final int maxMessages;
+    private final int summaryMaxChars;
+    private final Consumer<SessionChatMemory> onChange;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<ChatMessage> window = new ArrayList<>();
+    private final StringBuilder summary = new StringBuilder();
+    private SystemMessage systemMessage;
+    private volatile int estimatedBytes = MESSAGE_OVERHEAD;
+
+    SessionChatMemory(Object id, int maxMessages, int summaryMaxChars, Consumer<SessionChatMemory> onChange) {
+        this.id = id;
+        this.maxMessages = maxMessages;
+        this.summaryMaxChars = summaryMaxChars;
+        this.onChange = onChange;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        lock.lock();
+        try {
+            if (message instanceof SystemMessage system) {
+                systemMessage = system;
+            } else {
+                window.add(message);
+                evictOverflow();
+            }
+            estimatedBytes = computeBytes();
+        } finally {
+            lock.unlock();
+        }
+        onChange.accept(this);
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        lock.lock();
+        try {
+            List<ChatMessage> messages = new ArrayList<>(window.size() + 1);
+            if (summary.isEmpty()) {
+                if (systemMessage != null) {
+                    messages.add(systemMessage);
+                }
+            } else {
+                String base = systemMessage != null ? systemMessage.text() : "";
+                messages.add(SystemMessage.from(base + SUMMARY_HEADER + summary));
+            }
+            messages.addAll(window);
+            return messages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            window.clear();
+            summary.setLength(0);
+            systemMessage = null;
+            estimatedBytes = MESSAGE_OVERHEAD;
+        } finally {
+            lock.unlock();
+        }
+        onChange.accept(this);
+    }
+
+    /**
+     * Tamanho aproximado em memória (UTF-16), usado como peso no store.
+     */
+    public int estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return window.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ===============================
+    // Janela e resumo
+    // ===============================
+
+    private void evictOverflow() {
+        if (window.size() <= maxMessages) {
+            return;
+        }
+
+        int currentTurn = lastUserIndex();
+        int evicted = 0;
+
+        while (window.size() - evicted > maxMessages && evicted < currentTurn) {
+            evicted++;
+        }
+        // A janela deve recomeçar numa mensagem do usuário
+        while (evicted < currentTurn && !(window.get(evicted) instanceof UserMessage)) {
+            evicted++;
+        }
+
+        List<ChatMessage> removed = window.subList(0, evicted);
+        removed.forEach(this::summarize);
+        removed.clear();
+    }
+
+    private int lastUserIndex() {
+        for (int i = window.size() - 1; i >= 0; i--) {
+            if (window.get(i) instanceof UserMessage) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void summarize(ChatMessage message) {
+        if (message instanceof UserMessage user && user.hasSingleText()) {
+            appendLine("• Usuário: ", user.singleText(), USER_LINE_MAX);
+        } else if (message instanceof AiMessage ai && ai.text() != null && !ai.text().isBlank()) {
+            appendLine("• Assistente: ", ai.text(), AI_LINE_MAX);
+        }
+
+        if (summary.length() > summaryMaxChars) {
+            int cut = summary.indexOf("\n", summary.length() - summaryMaxChars);
+            summary.delete(0, cut >= 0 ? cut + 1 : summary.length() - summaryMaxChars);
+        }
+    }
+
+    private void appendLine(String prefix, String text, int max) {
+        summary.append(prefix);
+        int length = Math.min(text.length(), max);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            summary.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        if (text.length() > max) {
+            summary.append('…');
+        }
+        summary.append('\n');
+    }
+
+    private int computeBytes() {
+        long chars = summary.length() + (systemMessage != null ? systemMessage.text().length() : 0);
+        for (ChatMessage message : window) {
+            chars += length(message);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, MESSAGE_OVERHEAD * (window.size() + 1L) + chars * 2);
+    }
+
+    private static int length(ChatMessage message) {
+        return switch (message) {
+            case UserMessage user -> user.hasSingleText() ? user.singleText().length() : 0;
+            case AiMessage ai -> {
+                int length = ai.text() != null ? ai.text().length() : 0;
+                if (ai.hasToolExecutionRequests()) {
+                    for (ToolExecutionRequest request : ai.toolExecutionRequests()) {
+                        length += request.name().length() + (request.arguments() != null ? request.arguments().length() : 0);
+                    }
+                }
+                yield length;
+            }
+            case ToolExecutionResultMessage result -> result.text() != null ? result.text().length() : 0;
+            default -> 0;
+        };
+    }
+}
@@ -1,449 +1,548 @@
 package br.com.sistema.gmail.tools;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import br.com.sistema.gmail.client.GmailClientProvider;
+import br.com.sistema.gmail.client.GmailMessageCache;
+import br.com.sistema.gmail.client.GmailMessageFetcher;
+import br.com.sistema.gmail.client.GmailOperation;
+import br.com.sistema.gmail.client.GmailQuotaExceededException;
+import br.com.sistema.gmail.client.GmailRateLimiter;
+import br.com.sistema.gmail.client.MessageProjection;
+import br.com.sistema.gmail.mapper.EmailMapper;
+import br.com.sistema.gmail.mapper.MessageHeaders;
+import br.com.sistema.gmail.mapper.MimeBodyExtractor;
+import br.com.sistema.gmail.mapper.MimeMessageEncoder;
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.service.BulkAction;
+import br.com.sistema.gmail.service.EmailListingService;
+import br.com.sistema.gmail.service.EmailListingService.EmailPage;
+import br.com.sistema.gmail.service.GmailAttachmentService;
+import br.com.sistema.gmail.service.GmailAttachmentService.Attachment;
+import br.com.sistema.gmail.service.GmailBulkService;
+import br.com.sistema.gmail.service.GmailBulkService.BulkResult;
+import br.com.sistema.gmail.service.MailboxSyncService;
+import br.com.sistema.gmail.tools.ListingCursorRegistry.ListingCursor;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.gmail.Gmail;
-import com.google.api.services.gmail.GmailScopes;
-import com.google.api.services.gmail.model.ListMessagesResponse;
 import com.google.api.services.gmail.model.Message;
-import com.google.api.services.gmail.model.MessagePart;
-import com.google.api.services.gmail.model.MessagePartHeader;
 import com.google.api.services.gmail.model.ModifyMessageRequest;
-import com.google.auth.http.HttpCredentialsAdapter;
-import com.google.auth.oauth2.UserCredentials;
 
 import dev.langchain4j.agent.tool.Tool;
-import jakarta.mail.Session;
-import jakarta.mail.Message.RecipientType;
-import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class GmailAssistantTools {
 
-    private static final String APPLICATION_NAME = "Gmail AI Assistant";
-    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
-    private static final List<String> SCOPES = Arrays.asList(
-            GmailScopes.GMAIL_READONLY,
-            GmailScopes.GMAIL_SEND,
-            GmailScopes.GMAIL_MODIFY,
-            GmailScopes.GMAIL_LABELS
-    );
-
-    private Gmail gmailService;
-
-    @Value("${gmail.client-id}")
-    private String clientId;
-
-    @Value("${gmail.client-secret}")
-    private String clientSecret;
-
-    @Value("${gmail.refresh-token}")
-    private String refreshToken;
+    private static final String INBOX_QUERY = "in:inbox";
+    private static final String UNREAD_QUERY = "is:unread in:inbox";
+    // Teto por chamada; o restante vem com moreEmails
+    private static final int MAX_LISTING = 100;
+
+    private static final Pattern GMAIL_OPERATORS = Pattern.compile("\\w+:|\"|\\bOR\\b|(^|\\s)-\\w");
+
+    private final GmailClientProvider clientProvider;
+    private final GmailMessageFetcher messageFetcher;
+    private final GmailRateLimiter rateLimiter;
+    private final GmailMessageCache messageCache;
+    private final MailboxSyncService mailboxSync;
+    private final EmailMapper emailMapper;
+    private final MimeBodyExtractor bodyExtractor;
+    private final MimeMessageEncoder mimeEncoder;
+    private final GmailBulkService bulkService;
+    private final ToolOutputFormatter outputFormatter;
+    private final MessageRefRegistry messageRefs;
+    private final EmailListingService listingService;
+    private final ListingCursorRegistry cursors;
+    private final GmailAttachmentService attachmentService;
 
     private Gmail getGmailService() {
-        if (gmailService == null) {
-            try {
-                log.info("🔌 Conectando ao Gmail API (headless)");
-
-                NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-
-                UserCredentials credentials = UserCredentials.newBuilder()
-                        .setClientId(clientId)
-                        .setClientSecret(clientSecret)
-                        .setRefreshToken(refreshToken)
-                        .build();
-
-                gmailService = new Gmail.Builder(httpTransport, JSON_FACTORY, new HttpCredentialsAdapter(credentials))
-                        .setApplicationName(APPLICATION_NAME)
-                        .build();
-
-                log.info("✅ Conectado ao Gmail (headless)");
-            } catch (Exception e) {
-                log.error("❌ Erro ao conectar Gmail", e);
-            }
-        }
-        return gmailService;
+        return clientProvider.getGmailService();
     }
 
     @Tool("Lista os últimos emails da caixa de entrada")
     public String listEmails(Integer maxResults) {
+        return listEmailsOutcome(maxResults).text();
+    }
+
+    public ToolOutcome listEmailsOutcome(Integer maxResults) {
         try {
             log.info("📬 Listando emails (max: {})", maxResults);
 
-            Gmail service = getGmailService();
-            String user = "me";
-
-            int limit = maxResults != null && maxResults > 0 ? maxResults : 10;
-
-            ListMessagesResponse response = service.users().messages()
-                    .list(user)
-                    .setMaxResults((long) limit)
-                    .setQ("in:inbox")
-                    .execute();
-
-            List<Message> messages = response.getMessages();
-
-            if (messages == null || messages.isEmpty()) {
-                return "📭 Caixa de entrada vazia.";
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("✅ Total: %d emails\n\n", messages.size()));
-
-            int count = 1;
-            for (Message message : messages) {
-                Message fullMessage = service.users().messages()
-                        .get(user, message.getId())
-                        .setFormat("full")
-                        .execute();
-
-                String from = getHeader(fullMessage, "From");
-                String subject = getHeader(fullMessage, "Subject");
-                String date = getHeader(fullMessage, "Date");
-                boolean unread = fullMessage.getLabelIds() != null &&
-                        fullMessage.getLabelIds().contains("UNREAD");
-
-                sb.append(String.format("📧 #%d%s\n", count, unread ? " 🔵 NÃO LIDO" : ""));
-                sb.append(String.format("   De: %s\n", from));
-                sb.append(String.format("   Assunto: %s\n", subject != null ? subject : "(sem assunto)"));
-                sb.append(String.format("   Data: %s\n", date));
-                sb.append(String.format("   ID: %s\n\n", message.getId()));
-
-                count++;
-            }
-
-            return sb.toString();
+            return ToolOutcome.ok(listFirstPage(INBOX_QUERY, limitOf(maxResults), email -> true,
+                    "📭 Caixa de entrada vazia.", " emails"));
 
         } catch (Exception e) {
             log.error("❌ Erro ao listar emails", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
     @Tool("Lista emails não lidos")
     public String listUnreadEmails(Integer maxResults) {
+        return listUnreadEmailsOutcome(maxResults).text();
+    }
+
+    public ToolOutcome listUnreadEmailsOutcome(Integer maxResults) {
         try {
             log.info("📬 Listando emails não lidos");
 
-            Gmail service = getGmailService();
-            String user = "me";
-
-            int limit = maxResults != null && maxResults > 0 ? maxResults : 10;
-
-            ListMessagesResponse response = service.users().messages()
-                    .list(user)
-                    .setMaxResults((long) limit)
-                    .setQ("is:unread in:inbox")
-                    .execute();
-
-            List<Message> messages = response.getMessages();
-
-            if (messages == null || messages.isEmpty()) {
-                return "✅ Nenhum email não lido!";
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("🔵 Total de não lidos: %d\n\n", messages.size()));
-
-            int count = 1;
-            for (Message message : messages) {
-                Message fullMessage = service.users().messages()
-                        .get(user, message.getId())
-                        .setFormat("full")
-                        .execute();
-
-                String from = getHeader(fullMessage, "From");
-                String subject = getHeader(fullMessage, "Subject");
-                String date = getHeader(fullMessage, "Date");
-
-                sb.append(String.format("📧 #%d 🔵\n", count));
-                sb.append(String.format("   De: %s\n", from));
-                sb.append(String.format("   Assunto: %s\n", subject != null ? subject : "(sem assunto)"));
-                sb.append(String.format("   Data: %s\n", date));
-                sb.append(String.format("   ID: %s\n\n", message.getId()));
-
-                count++;
-            }
-
-            return sb.toString();
+            return ToolOutcome.ok(listFirstPage(UNREAD_QUERY, limitOf(maxResults),
+                    email -> Boolean.TRUE.equals(email.getNaoLido()), "✅ Nenhum email não lido!", " não lidos"));
 
         } catch (Exception e) {
             log.error("❌ Erro ao listar não lidos", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
     @Tool("Busca emails por palavra-chave no assunto ou corpo")
     public String searchEmails(String query, Integer maxResults) {
+        return searchEmailsOutcome(query, maxResults).text();
+    }
+
+    public ToolOutcome searchEmailsOutcome(String query, Integer maxResults) {
         try {
             log.info("🔍 Buscando emails: {}", query);
 
-            Gmail service = getGmailService();
-            String user = "me";
-
-            int limit = maxResults != null && maxResults > 0 ? maxResults : 10;
+            int limit = limitOf(maxResults);
+            String title = " emails para '" + query + "'";
 
-            ListMessagesResponse response = service.users().messages()
-                    .list(user)
-                    .setMaxResults((long) limit)
-                    .setQ(query)
-                    .execute();
+            // Buscas com operadores vão direto ao Gmail e podem continuar por cursor
+            if (GMAIL_OPERATORS.matcher(query).find()) {
+                EmailPage page = listingService.page(query, null, 0, limit);
+                if (page.emails().isEmpty()) {
+                    return ToolOutcome.ok("🔍 Nenhum email encontrado para: " + query);
+                }
+                return ToolOutcome.ok(outputFormatter.formatListing(page.emails().size() + title, page.emails(),
+                        written -> cursorAfter(query, page, written)));
+            }
 
-            List<Message> messages = response.getMessages();
+            List<Email> emails = searchIndexed(query, limit);
 
-            if (messages == null || messages.isEmpty()) {
-                return String.format("❌ Nenhum email encontrado para: %s", query);
+            if (emails.isEmpty()) {
+                return ToolOutcome.ok("🔍 Nenhum email encontrado para: " + query);
             }
 
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("✅ Encontrados %d emails para '%s':\n\n", messages.size(), query));
+            return ToolOutcome.ok(outputFormatter.formatListing(emails.size() + title, emails));
 
-            int count = 1;
-            for (Message message : messages) {
-                Message fullMessage = service.users().messages()
-                        .get(user, message.getId())
-                        .setFormat("full")
-                        .execute();
+        } catch (Exception e) {
+            log.error("❌ Erro ao buscar emails", e);
+            return failure(e);
+        }
+    }
 
-                String from = getHeader(fullMessage, "From");
-                String subject = getHeader(fullMessage, "Subject");
-                String date = getHeader(fullMessage, "Date");
+    @Tool("Continua uma listagem a partir do cursor indicado no fim dela (ex.: c3), sem repetir os emails já mostrados")
+    public String moreEmails(String cursor, Integer maxResults) {
+        try {
+            log.info("📬 Continuando listagem: {}", cursor);
 
-                sb.append(String.format("📧 #%d\n", count));
-                sb.append(String.format("   De: %s\n", from));
-                sb.append(String.format("   Assunto: %s\n", subject));
-                sb.append(String.format("   Data: %s\n", date));
-                sb.append(String.format("   ID: %s\n\n", message.getId()));
+            ListingCursor position = cursors.resolve(cursor).orElse(null);
+            if (position == null) {
+                return "❌ Cursor expirado ou desconhecido: refaça a listagem";
+            }
 
-                count++;
+            EmailPage page = listingService.page(position.query(), position.pageToken(), position.skip(), limitOf(maxResults));
+            if (page.emails().isEmpty()) {
+                return "📭 Não há mais emails nesta listagem.";
             }
 
-            return sb.toString();
+            return outputFormatter.formatListing("+" + page.emails().size() + " emails", page.emails(),
+                    written -> cursorAfter(position.query(), page, written));
 
         } catch (Exception e) {
-            log.error("❌ Erro ao buscar emails", e);
+            log.error("❌ Erro ao continuar listagem", e);
             return formatError(e);
         }
     }
 
-    @Tool("Obtém o conteúdo completo de um email específico por ID")
+    @Tool("Obtém o conteúdo completo de um email específico por ref (ex.: m3) ou ID")
     public String getEmailContent(String emailId) {
+        return getEmailContentOutcome(emailId).text();
+    }
+
+    public ToolOutcome getEmailContentOutcome(String emailId) {
         try {
+            emailId = messageRefs.resolve(emailId);
             log.info("📖 Lendo email: {}", emailId);
 
             Gmail service = getGmailService();
-            String user = "me";
 
-            Message message = service.users().messages()
-                    .get(user, emailId)
-                    .setFormat("full")
-                    .execute();
+            Message message = messageFetcher.fetchOne(service, emailId, MessageProjection.DETAIL);
 
-            String from = getHeader(message, "From");
-            String to = getHeader(message, "To");
-            String subject = getHeader(message, "Subject");
-            String date = getHeader(message, "Date");
+            MessageHeaders headers = emailMapper.headers(message);
             String body = getEmailBody(message);
 
-            return String.format("""
-                    ✅ Email ID: %s
+            mailboxSync.indexBody(emailId, body);
 
-                    📤 De: %s
-                    📥 Para: %s
-                    📋 Assunto: %s
-                    📅 Data: %s
-
-                    📄 Conteúdo:
-                    ─────────────────────────────────
-                    %s
-                    ─────────────────────────────────
-                    """, emailId, from, to, subject, date, body);
+            return ToolOutcome.ok(outputFormatter.formatDetail(emailId, headers.from(), headers.to(), headers.subject(),
+                    headers.date(), body));
 
         } catch (Exception e) {
             log.error("❌ Erro ao ler email", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
-    @Tool("Envia um novo email")
-    public String sendEmail(String to, String subject, String body) {
+    @Tool("Lista os anexos de um email (ref ou ID): nome, tipo, tamanho e como baixar")
+    public String listAttachments(String emailId) {
         try {
-            log.info("Enviando email para: {}", to);
+            emailId = messageRefs.resolve(emailId);
+            log.info("📎 Listando anexos: {}", emailId);
 
-            Properties props = new Properties();
-            Session session = Session.getDefaultInstance(props, null);
-            MimeMessage email = new MimeMessage(session);
+            List<Attachment> attachments = attachmentService.list(emailId);
+            if (attachments.isEmpty()) {
+                return "📎 " + outputFormatter.ref(emailId) + " não tem anexos";
+            }
 
-            email.setFrom("me");
-            email.addRecipients(RecipientType.TO, to);
-            email.setSubject(subject);
-            email.setText(body);
+            return outputFormatter.formatAttachments(emailId, attachments);
 
-            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            email.writeTo(buffer);
+        } catch (Exception e) {
+            log.error("❌ Erro ao listar anexos", e);
+            return formatError(e);
+        }
+    }
+
+    @Tool("Envia um novo email")
+    public String sendEmail(String to, String subject, String body) {
+        return sendEmailOutcome(to, subject, body).text();
+    }
 
-            byte[] emailBytes = buffer.toByteArray();
-            String encodedEmail = Base64.getUrlEncoder().encodeToString(emailBytes);
+    public ToolOutcome sendEmailOutcome(String to, String subject, String body) {
+        try {
+            log.info("Enviando email para: {}", to);
 
             Message message = new Message();
-            message.setRaw(encodedEmail);
+            message.setRaw(mimeEncoder.encode(to, subject, body));
 
-            Message sentMessage = getGmailService().users()
+            Message sentMessage = rateLimiter.execute(GmailOperation.MESSAGES_SEND, getGmailService().users()
                     .messages()
                     .send("me", message)
-                    .execute();
+                    .setFields(MessageProjection.ID_FIELDS));
 
             log.info("✅ Email enviado com sucesso para: {} com ID: {}", to, sentMessage.getId());
 
-            return String.format(
-                    "✅ **EMAIL ENVIADO COM SUCESSO**\n\n" +
-                    "**Para:** %s\n" +
-                    "**Assunto:** %s\n" +
-                    "**ID da Mensagem:** %s\n\n" +
-                    "Conteúdo:\n%s",
-                    to, subject, sentMessage.getId(), body
-            );
+            return ToolOutcome.ok("✅ Email enviado para " + to + " | assunto: " + subject
+                    + " | ref: " + outputFormatter.ref(sentMessage.getId()));
 
         } catch (Exception e) {
             log.error("Erro ao enviar email para: {}", to, e);
-            return "❌ Erro ao enviar email: " + e.getMessage();
+            // Envio não é refeito: após timeout ou 5xx o Gmail pode ter aceitado a mensagem
+            if (isUnconfirmed(e)) {
+                return ToolOutcome.unconfirmed("⚠️ O Gmail não confirmou o envio para " + to
+                        + ": confira a pasta Enviados antes de tentar de novo, para não duplicar o email");
+            }
+            return ToolOutcome.failed("❌ Erro ao enviar email: " + e.getMessage());
         }
     }
 
-    @Tool("Marca um email como lido")
+    @Tool("Marca um email como lido (ref ou ID)")
     public String markAsRead(String emailId) {
+        return markAsReadOutcome(emailId).text();
+    }
+
+    public ToolOutcome markAsReadOutcome(String emailId) {
         try {
+            emailId = messageRefs.resolve(emailId);
             Gmail service = getGmailService();
             String user = "me";
 
             ModifyMessageRequest mods = new ModifyMessageRequest()
                     .setRemoveLabelIds(Arrays.asList("UNREAD"));
 
-            service.users().messages().modify(user, emailId, mods).execute();
+            Message modified = rateLimiter.execute(GmailOperation.MESSAGES_MODIFY, service.users().messages()
+                    .modify(user, emailId, mods)
+                    .setFields(MessageProjection.MODIFY_FIELDS));
 
-            return String.format("✅ Email %s marcado como lido!", emailId);
+            applyModification(modified);
+
+            return ToolOutcome.ok("✅ " + outputFormatter.ref(emailId) + " marcado como lido");
 
         } catch (Exception e) {
             log.error("❌ Erro ao marcar como lido", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
-    @Tool("Marca um email como não lido")
+    @Tool("Marca um email como não lido (ref ou ID)")
     public String markAsUnread(String emailId) {
+        return markAsUnreadOutcome(emailId).text();
+    }
+
+    public ToolOutcome markAsUnreadOutcome(String emailId) {
         try {
+            emailId = messageRefs.resolve(emailId);
             Gmail service = getGmailService();
             String user = "me";
 
             ModifyMessageRequest mods = new ModifyMessageRequest()
                     .setAddLabelIds(Arrays.asList("UNREAD"));
 
-            service.users().messages().modify(user, emailId, mods).execute();
+            Message modified = rateLimiter.execute(GmailOperation.MESSAGES_MODIFY, service.users().messages()
+                    .modify(user, emailId, mods)
+                    .setFields(MessageProjection.MODIFY_FIELDS));
 
-            return String.format("🔵 Email %s marcado como não lido!", emailId);
+            applyModification(modified);
+
+            return ToolOutcome.ok("🔵 " + outputFormatter.ref(emailId) + " marcado como não lido");
 
         } catch (Exception e) {
             log.error("❌ Erro ao marcar como não lido", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
-    @Tool("Deleta um email permanentemente")
+    @Tool("Deleta um email permanentemente (ref ou ID)")
     public String deleteEmail(String emailId) {
+        return deleteEmailOutcome(emailId).text();
+    }
+
+    public ToolOutcome deleteEmailOutcome(String emailId) {
         try {
+            emailId = messageRefs.resolve(emailId);
             Gmail service = getGmailService();
             String user = "me";
 
-            service.users().messages().delete(user, emailId).execute();
+            rateLimiter.execute(GmailOperation.MESSAGES_DELETE, service.users().messages().delete(user, emailId));
+
+            messageCache.invalidate(emailId);
+            mailboxSync.remove(emailId);
 
-            return String.format("🗑️ Email %s deletado com sucesso!", emailId);
+            return ToolOutcome.ok("🗑️ " + outputFormatter.ref(emailId) + " deletado");
 
         } catch (Exception e) {
             log.error("❌ Erro ao deletar email", e);
-            return formatError(e);
+            // Exclusão não é refeita: após timeout ou 5xx o email pode já ter sido apagado
+            if (isUnconfirmed(e)) {
+                return ToolOutcome.unconfirmed("⚠️ O Gmail não confirmou a exclusão de " + outputFormatter.ref(emailId)
+                        + ": liste os emails antes de tentar de novo");
+            }
+            return failure(e);
         }
     }
 
-    @Tool("Move um email para a lixeira")
+    @Tool("Move um email para a lixeira (ref ou ID)")
     public String trashEmail(String emailId) {
+        return trashEmailOutcome(emailId).text();
+    }
+
+    public ToolOutcome trashEmailOutcome(String emailId) {
         try {
+            emailId = messageRefs.resolve(emailId);
             Gmail service = getGmailService();
             String user = "me";
 
-            service.users().messages().trash(user, emailId).execute();
+            Message trashed = rateLimiter.execute(GmailOperation.MESSAGES_TRASH, service.users().messages()
+                    .trash(user, emailId)
+                    .setFields(MessageProjection.MODIFY_FIELDS));
 
-            return String.format("🗑️ Email %s movido para lixeira!", emailId);
+            applyModification(trashed);
+
+            return ToolOutcome.ok("🗑️ " + outputFormatter.ref(emailId) + " movido para lixeira");
 
         } catch (Exception e) {
             log.error("❌ Erro ao mover para lixeira", e);
-            return formatError(e);
+            return failure(e);
         }
     }
 
-    private String getHeader(Message message, String name) {
-        if (message.getPayload() == null || message.getPayload().getHeaders() == null) {
-            return "";
+    @Tool("Aplica uma ação em massa a vários emails por ref ou ID, numa única chamada. "
+            + "Ações: MARK_READ, MARK_UNREAD, TRASH")
+    public String bulkActionByIds(List<String> emailIds, BulkAction action) {
+        return bulkActionByIdsOutcome(emailIds, forModel(action)).text();
+    }
+
+    public ToolOutcome bulkActionByIdsOutcome(List<String> emailIds, BulkAction action) {
+        try {
+            log.info("📦 Ação em massa {} em {} emails", action, emailIds != null ? emailIds.size() : 0);
+
+            if (emailIds == null || emailIds.isEmpty()) {
+                return ToolOutcome.invalid("❌ Nenhum ID de email informado");
+            }
+
+            List<String> ids = emailIds.stream().map(messageRefs::resolve).toList();
+            return ToolOutcome.ok(formatBulkResult(bulkService.apply(action, ids), null));
+
+        } catch (Exception e) {
+            log.error("❌ Erro na ação em massa", e);
+            return failure(e);
         }
-        return message.getPayload().getHeaders().stream()
-                .filter(header -> header.getName().equalsIgnoreCase(name))
-                .map(MessagePartHeader::getValue)
-                .findFirst()
-                .orElse("");
     }
 
-    private String getEmailBody(Message message) {
+    @Tool("Aplica uma ação em massa a todos os emails que atendem a uma busca do Gmail "
+            + "(ex.: 'is:unread in:inbox', 'from:loja.com older_than:30d'). "
+            + "Ações: MARK_READ, MARK_UNREAD, TRASH")
+    public String bulkActionByQuery(String query, BulkAction action) {
+        return bulkActionByQueryOutcome(query, forModel(action)).text();
+    }
+
+    public ToolOutcome bulkActionByQueryOutcome(String query, BulkAction action) {
         try {
-            if (message.getPayload() == null) return "(corpo vazio)";
+            log.info("📦 Ação em massa {} para a busca: {}", action, query);
 
-            MessagePart payload = message.getPayload();
+            if (query == null || query.isBlank()) {
+                return ToolOutcome.invalid("❌ A busca não pode ser vazia");
+            }
 
-            if (payload.getBody() != null && payload.getBody().getData() != null) {
-                return new String(Base64.getUrlDecoder().decode(payload.getBody().getData()));
+            return ToolOutcome.ok(formatBulkResult(bulkService.applyToQuery(action, query), query));
+
+        } catch (Exception e) {
+            log.error("❌ Erro na ação em massa", e);
+            return failure(e);
+        }
+    }
+
+    /**
+     * O modelo nunca apaga em massa: {@code batchDelete} é irreversível, não passa
+     * pela lixeira e exige o escopo {@code https://mail.google.com/}. Um DELETE vindo
+     * do chat vira TRASH; a exclusão permanente fica só em {@code POST /emails/bulk}.
+     */
+    private BulkAction forModel(BulkAction action) {
+        if (action == BulkAction.DELETE) {
+            log.warn("⚠️ DELETE em massa pedido pelo modelo, aplicando TRASH");
+            return BulkAction.TRASH;
+        }
+        return action;
+    }
+
+    /**
+     * Primeira página de uma listagem: pela réplica local quando ela responde,
+     * senão direto do Gmail. O cursor devolvido continua de onde o texto parou.
+     */
+    private String listFirstPage(String query, int limit, Predicate<Email> filter,
+                                 String emptyMessage, String title) throws IOException {
+
+        List<Email> local = mailboxSync.findLocal(limit, filter).orElse(null);
+        if (local != null) {
+            if (local.isEmpty()) {
+                return emptyMessage;
             }
+            // A réplica segue a mesma ordem do Gmail: o cursor retoma a busca após os já mostrados
+            IntFunction<String> cursorAfter = written -> written < local.size() || local.size() >= limit
+                    ? cursors.register(new ListingCursor(query, null, written))
+                    : null;
+            return outputFormatter.formatListing(local.size() + title, local, cursorAfter);
+        }
 
-            if (payload.getParts() != null) {
-                for (MessagePart part : payload.getParts()) {
-                    if ("text/plain".equals(part.getMimeType()) &&
-                        part.getBody() != null &&
-                        part.getBody().getData() != null) {
-                        return new String(Base64.getUrlDecoder().decode(part.getBody().getData()));
-                    }
-                }
+        EmailPage page = listingService.page(query, null, 0, limit);
+        if (page.emails().isEmpty()) {
+            return emptyMessage;
+        }
+        return outputFormatter.formatListing(page.emails().size() + title, page.emails(),
+                written -> cursorAfter(query, page, written));
+    }
+
+    // Mesma página a partir do primeiro email cortado pelo orçamento, ou a próxima página
+    private String cursorAfter(String query, EmailPage page, int written) {
+        if (written < page.emails().size()) {
+            return cursors.register(new ListingCursor(query, page.pageToken(), page.skipAfter(written)));
+        }
+        if (page.nextPageToken() != null) {
+            return cursors.register(new ListingCursor(query, page.nextPageToken(), 0));
+        }
+        return null;
+    }
+
+    private List<Email> listLive(String query, int limit) throws IOException {
+        return listingService.page(query, null, 0, limit).emails();
+    }
+
+    private int limitOf(Integer maxResults) {
+        return maxResults != null && maxResults > 0 ? Math.min(maxResults, MAX_LISTING) : 10;
+    }
+
+    /**
+     * Responde pelo índice local quando possível; sem resultados suficientes,
+     * completa com a busca do Gmail. Consultas com operadores do Gmail
+     * (from:, is:, "...") não passam por aqui.
+     */
+    private List<Email> searchIndexed(String query, int limit) throws IOException {
+        List<Email> local = mailboxSync.searchLocal(query, limit).orElse(List.of());
+        if (local.size() >= limit) {
+            log.debug("⚡ Busca respondida pelo índice local");
+            return local;
+        }
+
+        Map<String, Email> merged = new LinkedHashMap<>();
+        local.forEach(email -> merged.put(email.getId(), email));
+        for (Email email : listLive(query, limit)) {
+            if (merged.size() >= limit) {
+                break;
             }
+            merged.putIfAbsent(email.getId(), email);
+        }
+        return new ArrayList<>(merged.values());
+    }
 
-            return "(corpo não disponível)";
+    private void applyModification(Message modified) {
+        messageCache.applyModification(modified);
+        mailboxSync.applyModification(modified);
+    }
 
-        } catch (Exception e) {
-            return "(erro ao ler corpo)";
+    private String formatBulkResult(BulkResult result, String query) {
+        if (result.matched() == 0) {
+            return query != null ? "🔍 Nenhum email encontrado para: " + query : "🔍 Nenhum email para processar";
         }
+
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("✅ ").append(result.processed()).append(" emails ").append(result.action().getDescription())
+                .append(" (").append(result.chunks()).append(result.chunks() == 1 ? " requisição)" : " requisições)");
+        if (result.capped()) {
+            sb.append("\n⚠️ Limite de emails por operação atingido; repita para processar o restante.");
+        }
+        return sb.toString();
+    }
+
+    private String getEmailBody(Message message) {
+        return bodyExtractor.extract(message);
+    }
+
+    private boolean isUnconfirmed(Exception e) {
+        return e instanceof SocketTimeoutException
+                || (e instanceof GoogleJsonResponseException json && json.getStatusCode() >= 500);
     }
 
     private String formatError(Exception e) {
+        return failure(e).text();
+    }
+
+    private ToolOutcome failure(Exception e) {
         String errorMsg = e.getMessage() != null ? e.getMessage() : "Erro desconhecido";
 
+        if (e instanceof GmailQuotaExceededException || errorMsg.contains("429") || errorMsg.contains("RateLimitExceeded")
+                || errorMsg.contains("rateLimitExceeded")) {
+            return ToolOutcome.failed("❌ Limite de uso da Gmail API atingido: tente novamente em instantes");
+        }
+
         if (errorMsg.contains("401") || errorMsg.contains("Unauthorized")) {
-            return "❌ Erro de autenticação: verifique o refresh token";
+            return ToolOutcome.failed("❌ Erro de autenticação: verifique o refresh token");
         }
         if (errorMsg.contains("404") || errorMsg.contains("Not Found")) {
-            return "❌ Email não encontrado";
+            return ToolOutcome.notFound("❌ Email não encontrado");
         }
         if (errorMsg.contains("403") || errorMsg.contains("Forbidden")) {
-            return "❌ Acesso negado: permissões insuficientes";
+            return ToolOutcome.failed("❌ Acesso negado: permissões insuficientes");
+        }
+        // Ref expirada ou desconhecida (MessageRefRegistry)
+        if (e instanceof IllegalArgumentException) {
+            return ToolOutcome.invalid("❌ " + errorMsg);
         }
 
-        return "❌ Erro: " + errorMsg;
+        return ToolOutcome.failed("❌ Erro: " + errorMsg);
     }
 }
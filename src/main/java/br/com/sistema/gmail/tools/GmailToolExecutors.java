@@ -0,0 +1,77 @@
+package br.com.sistema.gmail.tools;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.metrics.AssistantMetrics;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Executores das tools de {@link GmailAssistantTools} registrados no AiService.
+ *
+ * Cada execução roda na conta da conversa: o memoryId das sessões é
+ * {@code <conta>/<sessão>}, e a conta é restaurada na thread que executa a
+ * tool — que pode ser a thread do streaming do Gemini ou do executor de
+ * tools paralelas, onde a {@link GmailAccountContext} da requisição não existe.
+ *
+ * Cada execução também é medida em {@link AssistantMetrics}; uma resposta
+ * iniciada por "❌" ou uma exceção contam como erro.
+ */
+@Component
+@RequiredArgsConstructor
+public class GmailToolExecutors {
+
+    private final GmailAssistantTools gmailTools;
+    private final AssistantMetrics metrics;
+
+    public Map<ToolSpecification, ToolExecutor> executors() {
+        Map<ToolSpecification, ToolExecutor> executors = new LinkedHashMap<>();
+
+        for (Method method : GmailAssistantTools.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Tool.class)) {
+                ToolExecutor delegate = new DefaultToolExecutor(gmailTools, method);
+                executors.put(ToolSpecifications.toolSpecificationFrom(method), timed(method.getName(), accountScoped(delegate)));
+            }
+        }
+        return executors;
+    }
+
+    private ToolExecutor accountScoped(ToolExecutor delegate) {
+        return (ToolExecutionRequest request, Object memoryId) -> {
+            try (GmailAccountContext.Scope scope = GmailAccountContext.open(accountOf(memoryId))) {
+                return delegate.execute(request, memoryId);
+            }
+        };
+    }
+
+    private ToolExecutor timed(String tool, ToolExecutor delegate) {
+        return (ToolExecutionRequest request, Object memoryId) -> {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                String result = delegate.execute(request, memoryId);
+                success = result == null || !result.startsWith("❌");
+                return result;
+            } finally {
+                metrics.recordTool(tool, System.nanoTime() - start, success);
+            }
+        };
+    }
+
+    private String accountOf(Object memoryId) {
+        if (memoryId instanceof String id && id.indexOf('/') > 0) {
+            return id.substring(0, id.indexOf('/'));
+        }
+        return GmailAccountContext.current();
+    }
+}
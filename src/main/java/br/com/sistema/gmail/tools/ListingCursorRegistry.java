@@ -0,0 +1,57 @@
+package br.com.sistema.gmail.tools;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+
+/**
+ * Cursores curtos ("c1", "c2a"...) para continuar listagens das tools.
+ *
+ * O cursor guarda a busca, o {@code pageToken} do Gmail e quantos itens
+ * daquela página já foram mostrados; o modelo só repassa o identificador
+ * para {@code moreEmails}. Como as referências de mensagem, um cursor só é
+ * válido na conta que o gerou.
+ */
+@Component
+public class ListingCursorRegistry {
+
+    private static final String PREFIX = "c";
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, ListingCursor> cursors;
+
+    public ListingCursorRegistry(
+            @Value("${gmail.tools.cursor-capacity:1000}") long capacity,
+            @Value("${gmail.tools.cursor-ttl:PT30M}") Duration ttl) {
+
+        this.cursors = Caffeine.newBuilder().maximumSize(capacity).expireAfterAccess(ttl).build();
+    }
+
+    public String register(ListingCursor cursor) {
+        String id = PREFIX + Long.toString(sequence.incrementAndGet(), 36);
+        cursors.put(GmailAccountContext.scoped(id), cursor);
+        return id;
+    }
+
+    public Optional<ListingCursor> resolve(String id) {
+        if (id == null || id.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cursors.getIfPresent(GmailAccountContext.scoped(id.trim())));
+    }
+
+    /**
+     * @param query     busca do Gmail da listagem original
+     * @param pageToken página onde a listagem continua ({@code null} = primeira)
+     * @param skip      itens dessa página já mostrados
+     */
+    public record ListingCursor(String query, String pageToken, int skip) {}
+}
@@ -0,0 +1,89 @@
+package br.com.sistema.gmail.tools;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+
+/**
+ * Referências curtas ("m1", "m2a"...) para os IDs de mensagem do Gmail.
+ *
+ * As tools devolvem ao modelo a referência em vez do ID de 16 caracteres e
+ * resolvem de volta quando ela é usada como {@code emailId}. O mesmo ID
+ * recebe sempre a mesma referência enquanto estiver no registro. IDs reais
+ * continuam aceitos: os IDs do Gmail são hexadecimais e nunca começam com "m".
+ *
+ * O registro guarda a conta junto do ID: uma referência só é resolvida na
+ * conta que a gerou.
+ *
+ * As duas direções expiram juntas: o cache por ID é a fonte de verdade, e o
+ * índice por referência é mantido pelo seu removal listener. Uma referência
+ * expirada é recusada em vez de seguir para o Gmail como ID.
+ */
+@Component
+public class MessageRefRegistry {
+
+    private static final String PREFIX = "m";
+    private static final Pattern REF = Pattern.compile("m[0-9a-z]{1,8}");
+
+    private final AtomicLong sequence = new AtomicLong();
+    // ID (com a conta) → referência
+    private final Cache<String, String> refById;
+    // Referência → ID, espelho do refById
+    private final Map<String, String> idByRef = new ConcurrentHashMap<>();
+
+    public MessageRefRegistry(
+            @Value("${gmail.tools.ref-capacity:10000}") long capacity,
+            @Value("${gmail.tools.ref-ttl:PT2H}") Duration ttl) {
+
+        this.refById = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterAccess(ttl)
+                .<String, String>removalListener((scopedId, ref, cause) -> {
+                    if (ref != null) {
+                        idByRef.remove(ref, scopedId);
+                    }
+                })
+                .build();
+    }
+
+    public String refOf(String messageId) {
+        return refById.get(GmailAccountContext.scoped(messageId), scopedId -> {
+            String ref = PREFIX + Long.toString(sequence.incrementAndGet(), 36);
+            idByRef.put(ref, scopedId);
+            return ref;
+        });
+    }
+
+    /**
+     * Converte uma referência curta no ID real; outros valores voltam inalterados.
+     *
+     * @throws IllegalArgumentException se a referência expirou ou é de outra conta
+     */
+    public String resolve(String refOrId) {
+        if (refOrId == null) {
+            return null;
+        }
+        String value = refOrId.trim();
+        if (!REF.matcher(value).matches()) {
+            return value;
+        }
+
+        String scopedId = idByRef.get(value);
+        String prefix = GmailAccountContext.scoped("");
+        // Consulta ao refById renova o acesso das duas direções; ausente = já expirou
+        if (scopedId == null || !scopedId.startsWith(prefix) || !value.equals(refById.getIfPresent(scopedId))) {
+            throw new IllegalArgumentException("Referência " + value + " expirada ou desconhecida: liste os emails de novo");
+        }
+        return scopedId.substring(prefix.length());
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.sistema.gmail.tools;
+
+/**
+ * Resultado de uma tool: o texto entregue ao modelo e o desfecho tipado,
+ * usado pelos endpoints estruturados para escolher o status HTTP.
+ *
+ * {@link Status#UNCONFIRMED} separa as operações que não são refeitas
+ * (envio, exclusão) e terminaram sem resposta do Gmail: podem ter sido
+ * aplicadas, então quem chamou não deve repetir sem conferir.
+ */
+public record ToolOutcome(Status status, String text) {
+
+    public enum Status {
+        OK,
+        INVALID,
+        NOT_FOUND,
+        UNCONFIRMED,
+        FAILED
+    }
+
+    public static ToolOutcome ok(String text) {
+        return new ToolOutcome(Status.OK, text);
+    }
+
+    public static ToolOutcome invalid(String text) {
+        return new ToolOutcome(Status.INVALID, text);
+    }
+
+    public static ToolOutcome notFound(String text) {
+        return new ToolOutcome(Status.NOT_FOUND, text);
+    }
+
+    public static ToolOutcome unconfirmed(String text) {
+        return new ToolOutcome(Status.UNCONFIRMED, text);
+    }
+
+    public static ToolOutcome failed(String text) {
+        return new ToolOutcome(Status.FAILED, text);
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
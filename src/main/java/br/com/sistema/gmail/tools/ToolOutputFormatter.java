@@ -0,0 +1,245 @@
+package br.com.sistema.gmail.tools;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.models.Remetente;
+import br.com.sistema.gmail.service.GmailAttachmentService.Attachment;
+
+/**
+ * Formato compacto das respostas das tools, que voltam ao Gemini como
+ * tokens de entrada.
+ *
+ * Listagens viram uma linha por email ({@code ref|remetente|data|flags|assunto})
+ * com referências curtas no lugar do ID, remetentes repetidos trocados por
+ * um apelido ({@code @1}) definido uma única vez, e um orçamento de tokens
+ * (estimado em ~4 caracteres por token) que corta as linhas excedentes.
+ * Quando a listagem pode continuar, a última linha traz o cursor para
+ * {@code moreEmails}.
+ */
+@Component
+public class ToolOutputFormatter {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String TRUNCATED = "\n[... conteúdo truncado]";
+
+    private final MessageRefRegistry refs;
+    private final int listingBudgetChars;
+    private final int detailBudgetChars;
+    private final ZoneId zone;
+
+    public ToolOutputFormatter(
+            MessageRefRegistry refs,
+            @Value("${gmail.tools.listing-token-budget:1500}") int listingTokenBudget,
+            @Value("${gmail.tools.detail-token-budget:4000}") int detailTokenBudget,
+            @Value("${gmail.tools.time-zone:America/Sao_Paulo}") String zone) {
+
+        this.refs = refs;
+        this.listingBudgetChars = listingTokenBudget * CHARS_PER_TOKEN;
+        this.detailBudgetChars = detailTokenBudget * CHARS_PER_TOKEN;
+        this.zone = ZoneId.of(zone);
+    }
+
+    // ===============================
+    // Listagens
+    // ===============================
+
+    /**
+     * Exemplo:
+     * <pre>
+     * 3 emails | ref|de|data|flags(N=não lido,I=importante,E=estrela)|assunto
+     * @1=Maria Silva &lt;maria@x.com&gt;
+     * m1|@1|2024-03-12 14:20|N|Reunião amanhã
+     * m2|loja@y.com|2024-03-12 09:02||Sua compra
+     * m3|@1|2024-03-11 18:45|I|Re: Reunião amanhã
+     * </pre>
+     */
+    public String formatListing(String title, List<Email> emails) {
+        return formatListing(title, emails, written -> null);
+    }
+
+    /**
+     * @param cursorAfter recebe quantos emails couberam no orçamento e devolve
+     *                    o cursor para continuar dali, ou {@code null} no fim
+     */
+    public String formatListing(String title, List<Email> emails, IntFunction<String> cursorAfter) {
+        Map<String, Integer> senderCount = new LinkedHashMap<>();
+        for (Email email : emails) {
+            senderCount.merge(sender(email), 1, Integer::sum);
+        }
+
+        Map<String, String> aliases = new LinkedHashMap<>();
+        StringBuilder aliasLines = new StringBuilder();
+        StringBuilder rows = new StringBuilder();
+        int written = 0;
+
+        for (Email email : emails) {
+            String sender = sender(email);
+            String alias = aliases.get(sender);
+            String newAlias = null;
+
+            if (alias == null && senderCount.get(sender) > 1) {
+                alias = "@" + (aliases.size() + 1);
+                newAlias = alias;
+            }
+
+            int mark = rows.length();
+            rows.append(refs.refOf(email.getId())).append('|');
+            appendClean(rows, alias != null ? alias : sender);
+            rows.append('|');
+            appendDate(rows, email);
+            rows.append('|');
+            appendFlags(rows, email);
+            rows.append('|');
+            appendClean(rows, subject(email));
+            rows.append('\n');
+
+            int aliasCost = newAlias != null ? newAlias.length() + sender.length() + 2 : 0;
+            if (title.length() + aliasLines.length() + aliasCost + rows.length() > listingBudgetChars && written > 0) {
+                rows.setLength(mark);
+                break;
+            }
+
+            if (newAlias != null) {
+                aliases.put(sender, newAlias);
+                aliasLines.append(newAlias).append('=').append(sender).append('\n');
+            }
+            written++;
+        }
+
+        StringBuilder sb = new StringBuilder(title.length() + aliasLines.length() + rows.length() + 96);
+        sb.append(title).append(" | ref|de|data|flags(N=não lido,I=importante,E=estrela)|assunto\n");
+        sb.append(aliasLines).append(rows);
+
+        String cursor = cursorAfter.apply(written);
+        if (written < emails.size()) {
+            sb.append("[+").append(emails.size() - written).append(" omitidos pelo limite de tokens")
+                    .append(cursor != null ? "]\n" : "; refine a busca]\n");
+        }
+        if (cursor != null) {
+            sb.append("[mais: moreEmails(\"").append(cursor).append("\")]\n");
+        }
+        return sb.toString();
+    }
+
+    // ===============================
+    // Leitura de um email
+    // ===============================
+
+    public String formatDetail(String emailId, String from, String to, String subject, String date, String body) {
+        StringBuilder sb = new StringBuilder(256 + Math.min(body.length(), detailBudgetChars));
+        sb.append("ref: ").append(refs.refOf(emailId)).append('\n');
+        sb.append("de: ").append(from).append('\n');
+        sb.append("para: ").append(to).append('\n');
+        sb.append("assunto: ").append(subject).append('\n');
+        sb.append("data: ").append(date).append('\n');
+        sb.append("---\n");
+
+        int remaining = Math.max(0, detailBudgetChars - sb.length());
+        if (body.length() > remaining) {
+            sb.append(body, 0, remaining).append(TRUNCATED);
+        } else {
+            sb.append(body);
+        }
+        return sb.toString();
+    }
+
+    // ===============================
+    // Anexos
+    // ===============================
+
+    /**
+     * <pre>
+     * ref: m3 | 2 anexos (baixar em /api/v1/gmail/emails/{id}/attachments/{parte})
+     * parte|nome|tipo|tamanho
+     * 2|relatorio.pdf|application/pdf|4.8 MB
+     * </pre>
+     */
+    public String formatAttachments(String emailId, List<Attachment> attachments) {
+        StringBuilder sb = new StringBuilder(128 + attachments.size() * 64);
+        sb.append("ref: ").append(refs.refOf(emailId)).append(" | ").append(attachments.size())
+                .append(attachments.size() == 1 ? " anexo" : " anexos")
+                .append(" (baixar em /api/v1/gmail/emails/").append(emailId).append("/attachments/{parte})\n");
+        sb.append("parte|nome|tipo|tamanho\n");
+
+        for (Attachment attachment : attachments) {
+            sb.append(attachment.partId()).append('|');
+            appendClean(sb, attachment.filename());
+            sb.append('|').append(attachment.mimeType()).append('|');
+            appendSize(sb, attachment.size());
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public String ref(String emailId) {
+        return refs.refOf(emailId);
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    private String sender(Email email) {
+        Remetente remetente = email.getRemetente();
+        if (remetente == null || remetente.getEmail() == null) {
+            return "?";
+        }
+        if (remetente.getNome() == null) {
+            return remetente.getEmail();
+        }
+        return remetente.getNome() + " <" + remetente.getEmail() + ">";
+    }
+
+    private String subject(Email email) {
+        return email.getAssunto() != null && !email.getAssunto().isEmpty() ? email.getAssunto() : "(sem assunto)";
+    }
+
+    private void appendDate(StringBuilder sb, Email email) {
+        if (email.getDataRecebimento() != null) {
+            DATE.formatTo(Instant.ofEpochMilli(email.getDataRecebimento()).atZone(zone), sb);
+        } else if (email.getData() != null) {
+            sb.append(email.getData());
+        }
+    }
+
+    private void appendFlags(StringBuilder sb, Email email) {
+        if (Boolean.TRUE.equals(email.getNaoLido())) sb.append('N');
+        if (Boolean.TRUE.equals(email.getImportante())) sb.append('I');
+        if (Boolean.TRUE.equals(email.getEstrela())) sb.append('E');
+    }
+
+    private void appendSize(StringBuilder sb, long bytes) {
+        if (bytes < 1024) {
+            sb.append(bytes).append(" B");
+        } else if (bytes < 1024 * 1024) {
+            appendTenths(sb, bytes, 1024).append(" KB");
+        } else {
+            appendTenths(sb, bytes, 1024 * 1024).append(" MB");
+        }
+    }
+
+    // Uma casa decimal arredondada (half-up) sem String.format
+    private StringBuilder appendTenths(StringBuilder sb, long bytes, long unit) {
+        long tenths = (bytes * 10 + unit / 2) / unit;
+        return sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    // O separador "|" e quebras de linha quebrariam o formato
+    private void appendClean(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            sb.append(c == '|' ? '/' : (c == '\n' || c == '\r') ? ' ' : c);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package br.com.sistema.assistant;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "gmail.api-key=teste")
 class SpringAiGmailAssistantApplicationTests {
 
 	@Test
@@ -0,0 +1,75 @@
+package br.com.sistema.gmail.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class GmailAttachmentCacheTest {
+
+    @Test
+    void storedAttachmentIsReadBack() throws IOException {
+        GmailAttachmentCache cache = cache(1024);
+
+        cache.store("m1", "2", out -> out.write(bytes("conteúdo")));
+
+        AtomicReference<byte[]> read = new AtomicReference<>();
+        assertTrue(cache.read("m1", "2", file -> read.set(Files.readAllBytes(file))));
+        assertArrayEquals(bytes("conteúdo"), read.get());
+        assertFalse(cache.read("m1", "3", file -> { }));
+    }
+
+    @Test
+    void evictedFileSurvivesUntilTheReaderFinishes() throws Exception {
+        GmailAttachmentCache cache = cache(10);
+        cache.store("m1", "1", out -> out.write(bytes("12345678")));
+
+        AtomicReference<Path> evicted = new AtomicReference<>();
+        assertTrue(cache.read("m1", "1", file -> {
+            evicted.set(file);
+            // Passa do limite: a entrada em leitura sai do cache
+            cache.store("m2", "1", out -> out.write(bytes("abcdefgh")));
+            assertArrayEquals(bytes("12345678"), Files.readAllBytes(file));
+        }));
+
+        // A eviction do Caffeine é assíncrona: o arquivo some assim que ela roda
+        for (int i = 0; i < 100 && Files.exists(evicted.get()); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(Files.exists(evicted.get()));
+    }
+
+    @Test
+    void interruptedDownloadLeavesNothingBehind() throws IOException {
+        Path directory = Files.createTempDirectory("anexos");
+        GmailAttachmentCache cache = new GmailAttachmentCache(directory.toString(), 1024);
+
+        assertThrows(IOException.class, () -> cache.store("m1", "1", out -> {
+            out.write(bytes("metade"));
+            throw new IOException("conexão caiu");
+        }));
+
+        assertFalse(cache.read("m1", "1", file -> { }));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static GmailAttachmentCache cache(long maxBytes) throws IOException {
+        return new GmailAttachmentCache(Files.createTempDirectory("anexos").toString(), maxBytes);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.sistema.gmail.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.api.services.gmail.model.Message;
+
+class GmailMessageCacheTest {
+
+    private final GmailMessageCache cache = new GmailMessageCache(1_000_000, 1_000_000, Duration.ofMinutes(10));
+
+    @Test
+    void withoutAKnownHistoryIdOnlyTheTtlApplies() {
+        Message message = message("m1", 10);
+        cache.put(message, MessageProjection.LISTING);
+
+        assertSame(message, cache.get("m1", MessageProjection.LISTING));
+    }
+
+    @Test
+    void entryReadBeforeANewerHistoryIdIsAMiss() {
+        cache.observe(BigInteger.valueOf(100));
+        Message message = message("m1", 90);
+        cache.put(message, MessageProjection.DETAIL);
+
+        assertSame(message, cache.get("m1", MessageProjection.DETAIL));
+
+        // A caixa mudou (ex.: email lido no Gmail web) e ninguém sincronizou
+        cache.observe(BigInteger.valueOf(105));
+
+        assertNull(cache.get("m1", MessageProjection.DETAIL));
+        assertNull(cache.get("m1", MessageProjection.LISTING));
+        assertEquals(BigInteger.valueOf(105), cache.latestHistoryId());
+    }
+
+    @Test
+    void incrementalSyncKeepsEntriesItCovered() {
+        cache.observe(BigInteger.valueOf(100));
+        Message message = message("m1", 90);
+        cache.put(message, MessageProjection.LISTING);
+
+        cache.observe(BigInteger.valueOf(105));
+        cache.markSynced(BigInteger.valueOf(100), BigInteger.valueOf(105));
+
+        assertSame(message, cache.get("m1", MessageProjection.LISTING));
+    }
+
+    @Test
+    void syncStartingAfterTheReadDoesNotCoverIt() {
+        cache.observe(BigInteger.valueOf(100));
+        cache.put(message("m1", 90), MessageProjection.LISTING);
+
+        // Deltas a partir de 103: o que mudou entre 100 e 103 não passou pelo cache
+        cache.markSynced(BigInteger.valueOf(103), BigInteger.valueOf(110));
+
+        assertNull(cache.get("m1", MessageProjection.LISTING));
+    }
+
+    @Test
+    void consecutiveSyncsExtendTheCoverage() {
+        cache.observe(BigInteger.valueOf(100));
+        Message message = message("m1", 90);
+        cache.put(message, MessageProjection.LISTING);
+
+        cache.markSynced(BigInteger.valueOf(100), BigInteger.valueOf(105));
+        cache.markSynced(BigInteger.valueOf(105), BigInteger.valueOf(120));
+
+        assertSame(message, cache.get("m1", MessageProjection.LISTING));
+    }
+
+    @Test
+    void watermarkIsPerAccount() {
+        cache.observe(BigInteger.valueOf(100));
+        Message message = message("m1", 90);
+        cache.put(message, MessageProjection.LISTING);
+
+        try (GmailAccountContext.Scope scope = GmailAccountContext.open("financeiro")) {
+            cache.observe(BigInteger.valueOf(500));
+        }
+
+        assertSame(message, cache.get("m1", MessageProjection.LISTING));
+    }
+
+    private static Message message(String id, long historyId) {
+        return new Message().setId(id).setHistoryId(BigInteger.valueOf(historyId)).setLabelIds(List.of("INBOX"));
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.sistema.gmail.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import br.com.sistema.gmail.dtos.response.AssistantResponse;
+import br.com.sistema.gmail.tools.ToolOutcome;
+
+class GmailActionControllerTest {
+
+    @Test
+    void okIsReturnedAsSuccess() {
+        ResponseEntity<AssistantResponse> response = GmailActionController.toResponse("Enviar email", "send",
+                ToolOutcome.ok("✅ Email enviado"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().success());
+        assertEquals("✅ Email enviado", response.getBody().data());
+    }
+
+    @Test
+    void unconfirmedSendIsNotASuccess() {
+        ResponseEntity<AssistantResponse> response = GmailActionController.toResponse("Enviar email", "send",
+                ToolOutcome.unconfirmed("⚠️ O Gmail não confirmou o envio"));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertFalse(response.getBody().success());
+        assertEquals("⚠️ O Gmail não confirmou o envio", response.getBody().error());
+    }
+
+    @Test
+    void failuresMapByStatusNotByText() {
+        assertEquals(HttpStatus.NOT_FOUND,
+                GmailActionController.toResponse("Ler", "read", ToolOutcome.notFound("sumiu")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                GmailActionController.toResponse("Ler", "read", ToolOutcome.invalid("ref expirada")).getStatusCode());
+        // Texto sem o prefixo de erro: ainda é falha
+        assertEquals(HttpStatus.BAD_GATEWAY,
+                GmailActionController.toResponse("Ler", "read", ToolOutcome.failed("erro")).getStatusCode());
+    }
+}
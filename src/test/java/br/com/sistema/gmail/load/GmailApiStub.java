@@ -0,0 +1,388 @@
+package br.com.sistema.gmail.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stub local da Gmail REST API (e do endpoint de token OAuth) para os testes
+ * de carga: uma caixa de entrada sintética de {@code mailboxSize} mensagens,
+ * latência fixa injetada em cada requisição HTTP e contagem das chamadas
+ * por operação.
+ *
+ * Atende as rotas usadas pelo serviço: messages list/get/send/modify/trash/
+ * delete/batchModify/batchDelete, history.list, getProfile e o batch HTTP
+ * ({@code /batch/gmail/v1}), cujos itens são contados individualmente.
+ * O estado das labels não é mantido: modify/trash respondem sem alterar a caixa.
+ * O historyId da caixa só muda por {@link #advanceHistory()}, que simula uma
+ * alteração (history.list responde sem registros, só com o novo historyId).
+ */
+class GmailApiStub implements AutoCloseable {
+
+    static final String TOKEN_PATH = "/token";
+    static final String EMAIL_ADDRESS = "carga@exemplo.com.br";
+
+    private static final String API = "/gmail/v1/users/me/";
+    private static final Pattern MESSAGE_PATH = Pattern.compile("messages/([^/]+)(/(modify|trash|untrash))?");
+    private static final Pattern BATCH_REQUEST_LINE = Pattern.compile("^(GET|POST|PUT|PATCH|DELETE) (\\S+) HTTP/1\\.1$");
+    private static final String[] SENDERS = {
+            "Maria Silva <maria.silva@empresa.com.br>", "João Souza <joao.souza@empresa.com.br>",
+            "Loja Exemplo <newsletter@loja.exemplo.com.br>", "Banco Exemplo <avisos@banco.exemplo.com.br>",
+            "GitHub <noreply@github.com>", "Ana Lima <ana.lima@cliente.com.br>",
+            "Pedro Alves <pedro@fornecedor.com.br>", "RH <rh@empresa.com.br>"
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final long latencyMillis;
+
+    private final List<String> ids;
+    private final Map<String, String> messages = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> unread = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> operations = new ConcurrentHashMap<>();
+    private final LongAdder httpRequests = new LongAdder();
+    private final AtomicLong sentSequence = new AtomicLong();
+    private final AtomicLong historyId = new AtomicLong(1000);
+
+    GmailApiStub(int mailboxSize, long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.ids = new ArrayList<>(mailboxSize);
+
+        for (int i = 0; i < mailboxSize; i++) {
+            String id = String.format("%016x", 0x18e3000000000000L + i);
+            ids.add(id);
+            unread.put(id, i % 3 == 0);
+            messages.put(id, messageJson(id, i));
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String rootUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    String tokenUri() {
+        return rootUrl().substring(0, rootUrl().length() - 1) + TOKEN_PATH;
+    }
+
+    /**
+     * Simula uma alteração na caixa; retorna o novo historyId.
+     */
+    long advanceHistory() {
+        return historyId.incrementAndGet();
+    }
+
+    long historyId() {
+        return historyId.get();
+    }
+
+    // ===============================
+    // Contadores
+    // ===============================
+
+    Snapshot snapshot() {
+        Map<String, Long> byOperation = new TreeMap<>();
+        operations.forEach((operation, count) -> byOperation.put(operation, count.sum()));
+        return new Snapshot(httpRequests.sum(), byOperation);
+    }
+
+    /**
+     * Chamadas desde {@code before}: requisições HTTP (ida e volta) e
+     * operações da API (itens de batch contados um a um; sem o token OAuth).
+     */
+    record Snapshot(long httpRequests, Map<String, Long> operations) {
+
+        long apiCalls() {
+            return operations.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals("batch") && !entry.getKey().equals("token"))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+
+        Snapshot minus(Snapshot before) {
+            Map<String, Long> delta = new TreeMap<>();
+            operations.forEach((operation, count) -> {
+                long diff = count - before.operations.getOrDefault(operation, 0L);
+                if (diff > 0) {
+                    delta.put(operation, diff);
+                }
+            });
+            return new Snapshot(httpRequests - before.httpRequests, delta);
+        }
+    }
+
+    // ===============================
+    // Roteamento
+    // ===============================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        httpRequests.increment();
+        try (exchange) {
+            sleep(latencyMillis);
+
+            URI uri = exchange.getRequestURI();
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            if (uri.getPath().equals("/batch/gmail/v1")) {
+                count("batch");
+                handleBatch(exchange, body);
+                return;
+            }
+
+            Response response = route(exchange.getRequestMethod(), uri.getRawPath(), uri.getRawQuery());
+            byte[] payload = response.json() != null ? response.json().getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(response.status(), payload.length > 0 ? payload.length : -1);
+            if (payload.length > 0) {
+                exchange.getResponseBody().write(payload);
+            }
+        }
+    }
+
+    private Response route(String method, String path, String query) throws IOException {
+        if (path.equals(TOKEN_PATH)) {
+            count("token");
+            return Response.ok("{\"access_token\":\"stub-token\",\"expires_in\":3600,\"token_type\":\"Bearer\"}");
+        }
+        if (!path.startsWith(API)) {
+            return Response.notFound();
+        }
+
+        String resource = path.substring(API.length());
+        Map<String, String> params = parseQuery(query);
+
+        if (resource.equals("profile")) {
+            count("users.getProfile");
+            return Response.ok("{\"emailAddress\":\"" + EMAIL_ADDRESS + "\",\"messagesTotal\":" + ids.size()
+                    + ",\"historyId\":\"" + historyId.get() + "\"}");
+        }
+        if (resource.equals("history")) {
+            count("history.list");
+            return Response.ok("{\"historyId\":\"" + historyId.get() + "\"}");
+        }
+        if (resource.equals("messages")) {
+            count("messages.list");
+            return list(params);
+        }
+        if (resource.equals("messages/send")) {
+            count("messages.send");
+            String id = "sent" + sentSequence.incrementAndGet();
+            return Response.ok("{\"id\":\"" + id + "\",\"threadId\":\"" + id + "\",\"labelIds\":[\"SENT\"]}");
+        }
+        if (resource.equals("messages/batchModify") || resource.equals("messages/batchDelete")) {
+            count("messages." + resource.substring("messages/".length()));
+            return Response.noContent();
+        }
+
+        Matcher matcher = MESSAGE_PATH.matcher(resource);
+        if (!matcher.matches()) {
+            return Response.notFound();
+        }
+        String id = matcher.group(1);
+        String action = matcher.group(3);
+        if (!messages.containsKey(id)) {
+            return new Response(404, "{\"error\":{\"code\":404,\"message\":\"Requested entity was not found.\"}}");
+        }
+
+        if (action != null) {
+            count("messages." + action);
+            return Response.ok("{\"id\":\"" + id + "\",\"labelIds\":" + labels(id) + "}");
+        }
+        if (method.equals("DELETE")) {
+            count("messages.delete");
+            return Response.noContent();
+        }
+        count("messages.get");
+        return Response.ok(messages.get(id));
+    }
+
+    private Response list(Map<String, String> params) throws IOException {
+        String q = params.getOrDefault("q", "");
+        int maxResults = Integer.parseInt(params.getOrDefault("maxResults", "100"));
+        int offset = Integer.parseInt(params.getOrDefault("pageToken", "0"));
+
+        List<String> matching = q.contains("is:unread") ? ids.stream().filter(unread::get).toList() : ids;
+        int end = Math.min(matching.size(), offset + maxResults);
+
+        List<Map<String, String>> page = new ArrayList<>();
+        for (String id : matching.subList(Math.min(offset, end), end)) {
+            page.add(Map.of("id", id, "threadId", id));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("messages", page);
+        response.put("resultSizeEstimate", matching.size());
+        if (end < matching.size()) {
+            response.put("nextPageToken", String.valueOf(end));
+        }
+        return Response.ok(objectMapper.writeValueAsString(response));
+    }
+
+    // ===============================
+    // Batch HTTP (multipart/mixed)
+    // ===============================
+
+    private void handleBatch(HttpExchange exchange, byte[] body) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+        String responseBoundary = "batch_" + UUID.randomUUID();
+
+        StringBuilder out = new StringBuilder();
+        for (String part : new String(body, StandardCharsets.UTF_8).split("--" + Pattern.quote(boundary))) {
+            String[] request = innerRequest(part);
+            if (request == null) {
+                continue;
+            }
+            URI uri = URI.create(request[1]);
+            Response response = route(request[0], uri.getRawPath(), uri.getRawQuery());
+
+            out.append("--").append(responseBoundary).append("\r\n")
+               .append("Content-Type: application/http\r\n\r\n")
+               .append("HTTP/1.1 ").append(response.status()).append(response.status() == 200 ? " OK" : " Error").append("\r\n")
+               .append("Content-Type: application/json; charset=UTF-8\r\n\r\n")
+               .append(response.json() != null ? response.json() : "")
+               .append("\r\n");
+        }
+        out.append("--").append(responseBoundary).append("--\r\n");
+
+        byte[] payload = out.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "multipart/mixed; boundary=" + responseBoundary);
+        exchange.sendResponseHeaders(200, payload.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(payload);
+        }
+    }
+
+    // {método, URL} da requisição embutida em uma parte do batch
+    private String[] innerRequest(String part) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(part));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Matcher matcher = BATCH_REQUEST_LINE.matcher(line.trim());
+            if (matcher.matches()) {
+                return new String[] {matcher.group(1), matcher.group(2)};
+            }
+        }
+        return null;
+    }
+
+    // ===============================
+    // Caixa sintética
+    // ===============================
+
+    private String messageJson(String id, int index) throws IOException {
+        String sender = SENDERS[index % SENDERS.length];
+        String subject = "Relatório " + (index + 1) + " — acompanhamento do projeto";
+        String text = ("Olá! Segue a atualização número " + (index + 1) + " do projeto, com os números da semana, "
+                + "os riscos levantados na reunião e os próximos passos combinados com o time.\n").repeat(8);
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id);
+        message.put("threadId", id);
+        message.put("labelIds", objectMapper.readValue(labels(id), List.class));
+        message.put("snippet", text.substring(0, 120));
+        message.put("historyId", "1000");
+        message.put("internalDate", String.valueOf(1_710_000_000_000L - index * 60_000L));
+        message.put("sizeEstimate", text.length() + 2048);
+        message.put("payload", Map.of(
+                "partId", "",
+                "mimeType", "text/plain",
+                "filename", "",
+                "headers", List.of(
+                        Map.of("name", "From", "value", sender),
+                        Map.of("name", "To", "value", "carga@exemplo.com.br"),
+                        Map.of("name", "Subject", "value", subject),
+                        Map.of("name", "Date", "value", "Tue, 12 Mar 2024 10:20:02 -0300"),
+                        Map.of("name", "Content-Type", "value", "text/plain; charset=\"UTF-8\"")),
+                "body", Map.of(
+                        "size", text.getBytes(StandardCharsets.UTF_8).length,
+                        "data", Base64.getUrlEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8)))));
+
+        return objectMapper.writeValueAsString(message);
+    }
+
+    private String labels(String id) {
+        return Boolean.TRUE.equals(unread.get(id)) ? "[\"INBOX\",\"UNREAD\"]" : "[\"INBOX\"]";
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    private void count(String operation) {
+        operations.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private record Response(int status, String json) {
+
+        static Response ok(String json) {
+            return new Response(200, json);
+        }
+
+        static Response noContent() {
+            return new Response(204, null);
+        }
+
+        static Response notFound() {
+            return new Response(404, "{\"error\":{\"code\":404,\"message\":\"Not Found\"}}");
+        }
+    }
+}
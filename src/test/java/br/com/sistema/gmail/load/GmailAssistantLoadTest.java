@@ -0,0 +1,129 @@
+package br.com.sistema.gmail.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import br.com.sistema.gmail.load.ScriptedChatModel.Scenario;
+import dev.langchain4j.model.chat.ChatModel;
+
+/**
+ * Teste de carga ponta a ponta: contexto Spring completo, Gmail API servida
+ * pelo {@link GmailApiStub} e Gemini substituído pelo {@link ScriptedChatModel}
+ * — nenhuma cota real é consumida.
+ *
+ * Fora do {@code mvn test} padrão (tag {@code load}); rode com:
+ * <pre>
+ * mvn -Pload test -Dload.concurrency=32 -Dload.requests=500 -Dload.mailbox-size=2000 -Dload.gmail-latency-ms=40
+ * </pre>
+ *
+ * Falha se alguma requisição der erro HTTP ou se o {@code /chat} passar de
+ * {@code load.max-gmail-round-trips} idas e voltas à Gmail API por
+ * requisição (regressão N+1).
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GmailAssistantLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 200);
+    private static final int MAILBOX_SIZE = Integer.getInteger("load.mailbox-size", 500);
+    private static final long GMAIL_LATENCY_MS = Long.getLong("load.gmail-latency-ms", 20);
+    private static final long LLM_LATENCY_MS = Long.getLong("load.llm-latency-ms", 50);
+    private static final double MAX_GMAIL_ROUND_TRIPS = Double.parseDouble(System.getProperty("load.max-gmail-round-trips", "10"));
+
+    private static final GmailApiStub GMAIL = startGmailStub();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ScriptedChatModel chatModel;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("gmail.api.root-url", GMAIL::rootUrl);
+        registry.add("gmail.oauth.token-uri", GMAIL::tokenUri);
+        registry.add("gmail.client-id", () -> "carga");
+        registry.add("gmail.client-secret", () -> "carga");
+        registry.add("gmail.refresh-token", () -> "carga");
+        registry.add("gmail.api-key", () -> LoadDriver.API_KEY);
+        registry.add("spring.langchain4j.google-ai.gemini.api-key", () -> "carga");
+        // Sem sincronização nem cache de respostas: toda listagem chega à Gmail API (mede o pior caso)
+        registry.add("gmail.sync.enabled", () -> System.getProperty("load.sync-enabled", "false"));
+        registry.add("gmail.chat.response-cache.enabled", () -> "false");
+    }
+
+    @TestConfiguration
+    static class ScriptedModelConfig {
+
+        @Bean
+        @Primary
+        ScriptedChatModel scriptedChatModel() {
+            return new ScriptedChatModel(LLM_LATENCY_MS);
+        }
+    }
+
+    @AfterAll
+    static void stopGmailStub() {
+        GMAIL.close();
+    }
+
+    @Test
+    void chatAndSendUnderLoad() throws InterruptedException {
+        LoadDriver driver = new LoadDriver("http://localhost:" + port + "/api/v1/gmail", GMAIL);
+        Scenario[] scenarios = Scenario.values();
+
+        // Aquecimento (JIT, pool de conexões, token OAuth) fora do relatório
+        driver.run("aquecimento", "/chat", CONCURRENCY, Math.min(REQUESTS, 4 * CONCURRENCY),
+                i -> chatBody(scenarios[i % scenarios.length]));
+
+        long llmCallsBefore = chatModel.calls();
+        LoadDriver.Report chat = driver.run("/chat", "/chat", CONCURRENCY, REQUESTS,
+                i -> chatBody(scenarios[i % scenarios.length]));
+        LoadDriver.Report send = driver.run("/send", "/send", CONCURRENCY, REQUESTS,
+                i -> """
+                        {"to": "carga@exemplo.com.br", "subject": "Carga %d", "body": "Mensagem de teste de carga número %d."}
+                        """.formatted(i, i));
+
+        System.out.println();
+        System.out.printf("Caixa: %d emails | latência Gmail: %d ms | latência LLM: %d ms | chamadas ao LLM por /chat: %.2f%n",
+                MAILBOX_SIZE, GMAIL_LATENCY_MS, LLM_LATENCY_MS, (double) (chatModel.calls() - llmCallsBefore) / REQUESTS);
+        System.out.println(chat.format());
+        System.out.println(send.format());
+
+        assertEquals(0, chat.httpErrors(), "requisições /chat com erro HTTP");
+        assertEquals(0, send.httpErrors(), "requisições /send com erro HTTP");
+        assertTrue(chat.gmailRoundTripsPerRequest() <= MAX_GMAIL_ROUND_TRIPS,
+                () -> String.format("/chat fez %.2f idas e voltas à Gmail API por requisição (máx. %.1f)",
+                        chat.gmailRoundTripsPerRequest(), MAX_GMAIL_ROUND_TRIPS));
+        assertTrue(send.gmailCallsPerRequest() <= 1.0,
+                () -> String.format("/send fez %.2f chamadas à Gmail API por requisição", send.gmailCallsPerRequest()));
+    }
+
+    private static String chatBody(Scenario scenario) {
+        return "{\"message\": \"" + scenario.prompt + "\"}";
+    }
+
+    private static GmailApiStub startGmailStub() {
+        try {
+            return new GmailApiStub(MAILBOX_SIZE, GMAIL_LATENCY_MS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.sistema.gmail.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import br.com.sistema.gmail.service.MailboxSyncService;
+
+/**
+ * Notificações push reenviadas pelo {@link PushPayloadReplayer} contra o
+ * serviço com a Gmail API do {@link GmailApiStub}: uma rajada da mesma caixa
+ * vira uma única sincronização incremental, e notificações repetidas ou de
+ * caixas desconhecidas não geram chamadas.
+ *
+ * Roda com os testes de carga ({@code mvn -Pload test}).
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GmailPushReplayTest {
+
+    private static final Duration COALESCE_WINDOW = Duration.ofSeconds(1);
+    private static final int BURST = Integer.getInteger("push.burst", 50);
+    private static final String PUSH_TOKEN = "push";
+
+    private static final GmailApiStub GMAIL = startGmailStub();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MailboxSyncService mailboxSync;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("gmail.api.root-url", GMAIL::rootUrl);
+        registry.add("gmail.oauth.token-uri", GMAIL::tokenUri);
+        registry.add("gmail.client-id", () -> "push");
+        registry.add("gmail.client-secret", () -> "push");
+        registry.add("gmail.refresh-token", () -> "push");
+        registry.add("gmail.api-key", () -> "push");
+        registry.add("spring.langchain4j.google-ai.gemini.api-key", () -> "push");
+        // Sincronização inicial imediata e sem polling: só o push atualiza a caixa
+        registry.add("gmail.sync.enabled", () -> "true");
+        registry.add("gmail.sync.initial-delay", () -> "PT0S");
+        registry.add("gmail.sync.interval", () -> "PT1H");
+        registry.add("gmail.push.enabled", () -> "true");
+        registry.add("gmail.push.verification-token", () -> PUSH_TOKEN);
+        registry.add("gmail.push.coalesce-window", COALESCE_WINDOW::toString);
+    }
+
+    @AfterAll
+    static void stopGmailStub() {
+        GMAIL.close();
+    }
+
+    @Test
+    void burstOfNotificationsCoalescesIntoOneSync() throws Exception {
+        awaitSyncedHistoryId(GMAIL.historyId());
+        PushPayloadReplayer replayer = new PushPayloadReplayer(
+                "http://localhost:" + port + "/api/v1/gmail/push?token=" + PUSH_TOKEN);
+
+        // Rajada: BURST alterações seguidas na caixa, uma notificação para cada
+        long first = GMAIL.historyId() + 1;
+        for (int i = 0; i < BURST; i++) {
+            GMAIL.advanceHistory();
+        }
+
+        GmailApiStub.Snapshot before = GMAIL.snapshot();
+        assertEquals(0, replayer.burst(GmailApiStub.EMAIL_ADDRESS, first, BURST, 8), "notificações sem 204");
+
+        awaitSyncedHistoryId(GMAIL.historyId());
+        Thread.sleep(COALESCE_WINDOW.multipliedBy(2).toMillis());
+        GmailApiStub.Snapshot burst = GMAIL.snapshot().minus(before);
+
+        assertEquals(1L, burst.operations().getOrDefault("history.list", 0L),
+                () -> "sincronizações para uma rajada de " + BURST + " notificações: " + burst.operations());
+
+        // Repetida (historyId já sincronizado) e de caixa desconhecida: nenhuma chamada
+        before = GMAIL.snapshot();
+        assertEquals(204, replayer.replay(replayer.payload(GmailApiStub.EMAIL_ADDRESS, GMAIL.historyId())));
+        assertEquals(204, replayer.replay(replayer.payload("outra@exemplo.com.br", GMAIL.historyId() + 1)));
+        Thread.sleep(COALESCE_WINDOW.multipliedBy(2).toMillis());
+        GmailApiStub.Snapshot ignored = GMAIL.snapshot().minus(before);
+
+        assertEquals(0L, ignored.apiCalls(), () -> "chamadas para notificações sem mudança: " + ignored.operations());
+
+        System.out.printf("Rajada de %d notificações -> %s%n", BURST, burst.operations());
+    }
+
+    private void awaitSyncedHistoryId(long historyId) throws InterruptedException {
+        BigInteger expected = BigInteger.valueOf(historyId);
+        Instant deadline = Instant.now().plusSeconds(10);
+        while (!expected.equals(mailboxSync.getState().getHistoryId())) {
+            if (Instant.now().isAfter(deadline)) {
+                throw new AssertionError("caixa não sincronizou até o historyId " + historyId
+                        + " (atual: " + mailboxSync.getState().getHistoryId() + ")");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static GmailApiStub startGmailStub() {
+        try {
+            return new GmailApiStub(200, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
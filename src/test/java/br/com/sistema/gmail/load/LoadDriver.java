@@ -0,0 +1,134 @@
+package br.com.sistema.gmail.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Dispara {@code totalRequests} requisições contra o serviço com
+ * {@code concurrency} clientes simultâneos (virtual threads) e mede
+ * vazão, percentis de latência e chamadas à Gmail API por requisição.
+ */
+class LoadDriver {
+
+    static final String API_KEY = "carga";
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String baseUrl;
+    private final GmailApiStub gmailStub;
+
+    LoadDriver(String baseUrl, GmailApiStub gmailStub) {
+        this.baseUrl = baseUrl;
+        this.gmailStub = gmailStub;
+    }
+
+    /**
+     * @param bodies corpo JSON da i-ésima requisição
+     */
+    Report run(String name, String path, int concurrency, int totalRequests, IntFunction<String> bodies)
+            throws InterruptedException {
+
+        long[] latencies = new long[totalRequests];
+        AtomicInteger next = new AtomicInteger();
+        LongAdder httpErrors = new LongAdder();
+        LongAdder toolErrors = new LongAdder();
+
+        GmailApiStub.Snapshot before = gmailStub.snapshot();
+        long start = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < totalRequests) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofMinutes(2))
+                                .header("Content-Type", "application/json")
+                                .header("X-API-Key", API_KEY)
+                                .POST(HttpRequest.BodyPublishers.ofString(bodies.apply(i)))
+                                .build();
+
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200) {
+                                httpErrors.increment();
+                            } else if (response.body().contains("❌")) {
+                                toolErrors.increment();
+                            }
+                        } catch (Exception e) {
+                            httpErrors.increment();
+                        }
+                        latencies[i] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                });
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        GmailApiStub.Snapshot gmail = gmailStub.snapshot().minus(before);
+
+        return new Report(name, concurrency, totalRequests, httpErrors.sum(), toolErrors.sum(), elapsed, latencies, gmail);
+    }
+
+    // ===============================
+    // Relatório
+    // ===============================
+
+    record Report(String name, int concurrency, int requests, long httpErrors, long toolErrors,
+                  long elapsedNanos, long[] latencies, GmailApiStub.Snapshot gmail) {
+
+        double throughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        double gmailCallsPerRequest() {
+            return (double) gmail.apiCalls() / requests;
+        }
+
+        double gmailRoundTripsPerRequest() {
+            return (double) gmail.httpRequests() / requests;
+        }
+
+        long percentileMillis(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+        }
+
+        String format() {
+            List<String> lines = new ArrayList<>();
+            lines.add("== " + name + " ==");
+            lines.add(String.format("requisições: %d (concorrência %d) | erros HTTP: %d | respostas com tool em erro: %d",
+                    requests, concurrency, httpErrors, toolErrors));
+            lines.add(String.format("vazão: %.1f req/s em %.1f s", throughput(), elapsedNanos / 1e9));
+            lines.add(String.format("latência (ms): p50=%d p90=%d p99=%d máx=%d",
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100)));
+            lines.add(String.format("Gmail API por requisição: %.2f chamadas, %.2f idas e voltas HTTP",
+                    gmailCallsPerRequest(), gmailRoundTripsPerRequest()));
+            for (Map.Entry<String, Long> entry : gmail.operations().entrySet()) {
+                lines.add(String.format("  %-22s %8d  (%.2f/req)", entry.getKey(), entry.getValue(),
+                        (double) entry.getValue() / requests));
+            }
+            return String.join(System.lineSeparator(), lines);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.sistema.gmail.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reenvia notificações push no formato do Pub/Sub para o endpoint
+ * {@code /api/v1/gmail/push}, sem Google Cloud.
+ *
+ * Usado pelo {@link GmailPushReplayTest} para gerar rajadas, e também à mão
+ * contra uma instância local, com payloads gravados (ex.:
+ * {@code src/test/resources/push/notification.json}):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=br.com.sistema.gmail.load.PushPayloadReplayer \
+ *     -Dexec.args="http://localhost:8082/api/v1/gmail/push?token=$GMAIL_PUSH_TOKEN src/test/resources/push/notification.json"
+ * </pre>
+ */
+class PushPayloadReplayer {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String endpoint;
+    private final AtomicInteger messageSequence = new AtomicInteger();
+
+    PushPayloadReplayer(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Corpo como o Pub/Sub entrega: a notificação do Gmail vai em base64 em {@code message.data}.
+     */
+    String payload(String emailAddress, long historyId) {
+        String notification = "{\"emailAddress\":\"" + emailAddress + "\",\"historyId\":" + historyId + "}";
+        String data = Base64.getEncoder().encodeToString(notification.getBytes(StandardCharsets.UTF_8));
+        return """
+                {"message": {"data": "%s", "messageId": "%d", "publishTime": "2025-01-22T15:30:00.000Z"},
+                 "subscription": "projects/local/subscriptions/gmail-push"}
+                """.formatted(data, messageSequence.incrementAndGet());
+    }
+
+    /**
+     * Envia um payload e retorna o status HTTP.
+     */
+    int replay(String payload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Rajada de {@code count} notificações com historyIds crescentes a partir
+     * de {@code firstHistoryId}, como o Gmail faz numa sequência de
+     * alterações. Retorna quantas não receberam 204.
+     */
+    long burst(String emailAddress, long firstHistoryId, int count, int concurrency) throws InterruptedException {
+        LongAdder failures = new LongAdder();
+        AtomicInteger next = new AtomicInteger();
+
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                senders.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < count) {
+                        try {
+                            if (replay(payload(emailAddress, firstHistoryId + i)) != 204) {
+                                failures.increment();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return failures.sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: PushPayloadReplayer <url do endpoint> <payload.json>...");
+            System.exit(1);
+        }
+
+        PushPayloadReplayer replayer = new PushPayloadReplayer(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            int status = replayer.replay(Files.readString(Path.of(args[i])));
+            System.out.printf("%s -> %d%n", args[i], status);
+        }
+    }
+}
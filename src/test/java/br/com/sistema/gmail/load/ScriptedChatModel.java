@@ -0,0 +1,195 @@
+package br.com.sistema.gmail.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Substituto determinístico do Gemini para os testes de carga.
+ *
+ * Cada prompt de {@link Scenario} tem um roteiro fixo de rodadas de tools;
+ * depois da última rodada o modelo responde com um texto curto, marcado com
+ * "❌" se alguma tool do turno falhou. Os argumentos são montados com os
+ * nomes de parâmetros da {@link ToolSpecification} recebida, e as refs
+ * ({@code m1}, {@code m2}...) usadas em {@code getEmailContent} são lidas da
+ * listagem devolvida na rodada anterior.
+ */
+class ScriptedChatModel implements ChatModel {
+
+    private static final Pattern LISTING_REF = Pattern.compile("(?m)^(m[0-9a-z]+)\\|");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMillis;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong toolCallSequence = new AtomicLong();
+
+    ScriptedChatModel(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Prompts usados pelo gerador de carga.
+     */
+    enum Scenario {
+        LIST_RECENT("Liste meus últimos 20 emails"),
+        LIST_UNREAD("Quais são meus emails não lidos?"),
+        SUMMARIZE("Resuma os 3 emails mais recentes"),
+        SEARCH("Busque emails sobre relatório");
+
+        final String prompt;
+
+        Scenario(String prompt) {
+            this.prompt = prompt;
+        }
+
+        static Scenario of(String prompt) {
+            for (Scenario scenario : values()) {
+                if (scenario.prompt.equals(prompt)) {
+                    return scenario;
+                }
+            }
+            return null;
+        }
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest request) {
+        calls.incrementAndGet();
+        sleep(latencyMillis);
+
+        List<ChatMessage> turn = currentTurn(request.messages());
+        UserMessage user = (UserMessage) turn.get(0);
+        int round = (int) turn.stream()
+                .filter(message -> message instanceof AiMessage ai && ai.hasToolExecutionRequests())
+                .count();
+
+        List<ToolExecutionRequest> tools = script(Scenario.of(user.singleText()), round, turn, request.toolSpecifications());
+
+        AiMessage answer = tools.isEmpty() ? AiMessage.from(finalAnswer(turn, round)) : AiMessage.from(tools);
+        return ChatResponse.builder()
+                .aiMessage(answer)
+                .tokenUsage(new TokenUsage(estimateTokens(request.messages()), tools.isEmpty() ? 60 : 20))
+                .finishReason(tools.isEmpty() ? FinishReason.STOP : FinishReason.TOOL_EXECUTION)
+                .build();
+    }
+
+    // ===============================
+    // Roteiros
+    // ===============================
+
+    private List<ToolExecutionRequest> script(Scenario scenario, int round, List<ChatMessage> turn,
+                                              List<ToolSpecification> specifications) {
+        if (scenario == null) {
+            return List.of();
+        }
+        return switch (scenario) {
+            case LIST_RECENT -> round == 0 ? List.of(call(specifications, "listEmails", 20)) : List.of();
+            case LIST_UNREAD -> round == 0 ? List.of(call(specifications, "listUnreadEmails", 10)) : List.of();
+            case SEARCH -> round == 0 ? List.of(call(specifications, "searchEmails", "relatório", 10)) : List.of();
+            case SUMMARIZE -> switch (round) {
+                case 0 -> List.of(call(specifications, "listEmails", 3));
+                // As três leituras vão na mesma resposta, como o prompt de sistema orienta
+                case 1 -> refsFromLastListing(turn).stream()
+                        .limit(3)
+                        .map(ref -> call(specifications, "getEmailContent", ref))
+                        .toList();
+                default -> List.of();
+            };
+        };
+    }
+
+    private ToolExecutionRequest call(List<ToolSpecification> specifications, String tool, Object... values) {
+        ToolSpecification specification = specifications.stream()
+                .filter(spec -> spec.name().equals(tool))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Tool não registrada: " + tool));
+
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(specification.parameters().properties().keySet());
+        for (int i = 0; i < values.length && i < names.size(); i++) {
+            arguments.put(names.get(i), values[i]);
+        }
+
+        try {
+            return ToolExecutionRequest.builder()
+                    .id("call-" + toolCallSequence.incrementAndGet())
+                    .name(tool)
+                    .arguments(objectMapper.writeValueAsString(arguments))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> refsFromLastListing(List<ChatMessage> turn) {
+        List<String> refs = new ArrayList<>();
+        for (ChatMessage message : turn) {
+            if (message instanceof ToolExecutionResultMessage result) {
+                Matcher matcher = LISTING_REF.matcher(result.text());
+                while (matcher.find()) {
+                    refs.add(matcher.group(1));
+                }
+            }
+        }
+        return refs;
+    }
+
+    private String finalAnswer(List<ChatMessage> turn, int round) {
+        boolean failed = turn.stream()
+                .anyMatch(message -> message instanceof ToolExecutionResultMessage result && result.text().startsWith("❌"));
+        return (failed ? "❌ " : "✅ ") + "Resposta roteirizada após " + round + " rodada(s) de tools";
+    }
+
+    // ===============================
+    // Auxiliares
+    // ===============================
+
+    // Mensagens a partir da última mensagem do usuário
+    private List<ChatMessage> currentTurn(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage) {
+                return messages.subList(i, messages.size());
+            }
+        }
+        throw new IllegalStateException("Requisição sem mensagem do usuário");
+    }
+
+    private int estimateTokens(List<ChatMessage> messages) {
+        return messages.stream().mapToInt(message -> message.toString().length() / 4).sum();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.sistema.gmail.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+import br.com.sistema.gmail.models.Remetente;
+
+class MessageHeadersTest {
+
+    @Test
+    void readsTheFirstOfEachHeaderIgnoringCase() {
+        MessageHeaders headers = MessageHeaders.of(message(
+                "from", "Ana <ana@x.com>",
+                "SUBJECT", "Primeiro",
+                "Subject", "Segundo",
+                "To", "eu@x.com",
+                "Date", "Tue, 12 Mar 2024 14:20:00 -0300",
+                "Received", "ignorado"));
+
+        assertEquals(new MessageHeaders("Ana <ana@x.com>", "eu@x.com", "Primeiro", "Tue, 12 Mar 2024 14:20:00 -0300"),
+                headers);
+    }
+
+    @Test
+    void decodesEncodedWordsInDisplayFields() {
+        MessageHeaders headers = MessageHeaders.of(message(
+                "Subject", "=?UTF-8?Q?Promo=C3=A7=C3=A3o?= =?UTF-8?Q?_de_ver=C3=A3o?=",
+                "To", "=?ISO-8859-1?Q?Jos=E9?= <jose@x.com>"));
+
+        assertEquals("Promoção de verão", headers.subject());
+        assertEquals("José <jose@x.com>", headers.to());
+    }
+
+    @Test
+    void keepsFromRawAndParsesTheSender() {
+        MessageHeaders headers = MessageHeaders.of(message("From", "=?UTF-8?B?Sm/Do28gU2lsdmE=?= <joao@x.com>"));
+
+        assertEquals("=?UTF-8?B?Sm/Do28gU2lsdmE=?= <joao@x.com>", headers.rawFrom());
+        assertEquals(new Remetente("João Silva", "joao@x.com"), headers.remetente());
+        assertEquals("João Silva <joao@x.com>", headers.from());
+    }
+
+    @Test
+    void decodedNameWithCommaDoesNotSplitTheAddress() {
+        MessageHeaders headers = MessageHeaders.of(message("From", "=?UTF-8?Q?Silva,_Jo=C3=A3o?= <j@x.com>"));
+
+        assertEquals(new Remetente("Silva, João", "j@x.com"), headers.remetente());
+    }
+
+    @Test
+    void parsesQuotedAndBareSenders() {
+        assertEquals(new Remetente("Silva, Ana", "ana@x.com"), sender("\"Silva, Ana\" <ana@x.com>"));
+        assertEquals(new Remetente(null, "ana@x.com"), sender("ana@x.com"));
+        // Vírgula sem aspas (fora do padrão): separa pelo "<...>"
+        assertEquals(new Remetente("Silva, Ana", "ana@x.com"), sender("Silva, Ana <ana@x.com>"));
+    }
+
+    @Test
+    void missingHeadersAreEmpty() {
+        MessageHeaders headers = MessageHeaders.of(message("Subject", "só assunto"));
+
+        assertEquals("", headers.rawFrom());
+        assertEquals("", headers.to());
+        assertEquals("", headers.date());
+        assertEquals(new Remetente(null, ""), headers.remetente());
+        assertEquals(new MessageHeaders("", "", "", ""), MessageHeaders.of(new Message()));
+    }
+
+    @Test
+    void invalidEncodedWordIsKeptAsIs() {
+        assertEquals("=?X-DESCONHECIDO?Q?abc?=", MessageHeaders.of(message("Subject", "=?X-DESCONHECIDO?Q?abc?=")).subject());
+    }
+
+    private static Remetente sender(String from) {
+        return MessageHeaders.of(message("From", from)).remetente();
+    }
+
+    private static Message message(String... namesAndValues) {
+        List<MessagePartHeader> headers = new ArrayList<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.add(new MessagePartHeader().setName(namesAndValues[i]).setValue(namesAndValues[i + 1]));
+        }
+        return new Message().setPayload(new MessagePart().setHeaders(headers));
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.sistema.gmail.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.MessagePart;
+import com.google.api.services.gmail.model.MessagePartBody;
+import com.google.api.services.gmail.model.MessagePartHeader;
+
+class MimeBodyExtractorTest {
+
+    private static final String TRUNCATED = "\n\n[... conteúdo truncado]";
+
+    private final MimeBodyExtractor extractor = new MimeBodyExtractor(32768);
+
+    @Test
+    void prefersPlainTextInsideNestedMultipart() {
+        MessagePart alternative = multipart("multipart/alternative",
+                text("text/html", "<p>versão <b>html</b></p>", StandardCharsets.UTF_8),
+                text("text/plain", "versão texto", StandardCharsets.UTF_8));
+        MessagePart mixed = multipart("multipart/mixed",
+                multipart("multipart/related", alternative),
+                attachment("nota.txt", "text/plain", "conteúdo do anexo"));
+
+        assertEquals("versão texto", extractor.extract(message(mixed)));
+    }
+
+    @Test
+    void fallsBackToHtmlConvertedToText() {
+        MessagePart alternative = multipart("multipart/alternative",
+                text("text/html", "<style>p{}</style><p>Olá &amp; bem-vindo</p><div>Linha 2</div>",
+                        StandardCharsets.UTF_8));
+
+        assertEquals("Olá & bem-vindo\nLinha 2", extractor.extract(message(alternative)));
+    }
+
+    @Test
+    void ignoresTextAttachments() {
+        MessagePart mixed = multipart("multipart/mixed",
+                attachment("leia.txt", "text/plain", "anexo"),
+                text("text/html", "<p>corpo</p>", StandardCharsets.UTF_8));
+
+        assertEquals("corpo", extractor.extract(message(mixed)));
+    }
+
+    @Test
+    void decodesDeclaredCharset() {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+
+        assertEquals("Ação concluída", extractor.extract(message(text("text/plain", "Ação concluída", latin1))));
+    }
+
+    @Test
+    void dropsMultiByteCharacterCutAtTheCap() {
+        // "abcd" + "é" (2 bytes em UTF-8): o limite de 5 bytes corta o "é" ao meio
+        MimeBodyExtractor capped = new MimeBodyExtractor(5);
+
+        assertEquals("abcd" + TRUNCATED, capped.extract(message(text("text/plain", "abcdé fim", StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void bodyExactlyAtTheCapIsNotTruncated() {
+        MimeBodyExtractor capped = new MimeBodyExtractor(6);
+
+        assertEquals("abcdé", capped.extract(message(text("text/plain", "abcdé", StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void malformedSequenceAtTheEndOfACompleteBodyIsReplaced() {
+        byte[] bytes = {'a', 'b', (byte) 0xC3};
+
+        assertEquals("ab\uFFFD", extractor.extract(message(part("text/plain", bytes, "text/plain; charset=UTF-8"))));
+    }
+
+    @Test
+    void reportsMissingTextBody() {
+        MessagePart mixed = multipart("multipart/mixed", attachment("foto.jpg", "image/jpeg", "..."));
+
+        assertEquals("(corpo não disponível)", extractor.extract(message(mixed)));
+    }
+
+    // ===============================
+    // Montagem das mensagens
+    // ===============================
+
+    private static Message message(MessagePart payload) {
+        return new Message().setId("m").setPayload(payload);
+    }
+
+    private static MessagePart multipart(String mimeType, MessagePart... parts) {
+        return new MessagePart().setMimeType(mimeType).setParts(List.of(parts));
+    }
+
+    private static MessagePart text(String mimeType, String content, Charset charset) {
+        return part(mimeType, content.getBytes(charset), mimeType + "; charset=\"" + charset.name() + "\"");
+    }
+
+    private static MessagePart attachment(String filename, String mimeType, String content) {
+        return part(mimeType, content.getBytes(StandardCharsets.UTF_8), mimeType).setFilename(filename);
+    }
+
+    private static MessagePart part(String mimeType, byte[] content, String contentType) {
+        return new MessagePart()
+                .setMimeType(mimeType)
+                .setHeaders(List.of(new MessagePartHeader().setName("Content-Type").setValue(contentType)))
+                .setBody(new MessagePartBody().setData(Base64.getUrlEncoder().encodeToString(content)));
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class ChatResponseCacheTest {
+
+    @Test
+    void normalizesCaseAccentsWhitespaceAndTrailingPunctuation() {
+        assertEquals("quais sao meus emails nao lidos", ChatResponseCache.normalize("Quais são  meus emails\tNÃO lidos?"));
+        assertEquals("quais sao meus emails nao lidos", ChatResponseCache.normalize("  quais sao meus emails nao lidos ?! "));
+        assertEquals("resuma os emails de hoje", ChatResponseCache.normalize("Resuma os emails de hoje..."));
+    }
+
+    @Test
+    void keepsInnerPunctuation() {
+        // Pontuação no meio muda o sentido do pedido (ex.: endereços e buscas)
+        assertEquals("buscar from:ana@x.com, assunto: fatura", ChatResponseCache.normalize("Buscar from:ana@x.com, assunto: fatura?"));
+    }
+
+    @Test
+    void disabledCacheHasNoKey() {
+        ChatResponseCache cache = new ChatResponseCache(null, false, 10, Duration.ofMinutes(5));
+
+        assertEquals(Optional.empty(), cache.keyFor("quais são meus emails?"));
+    }
+}
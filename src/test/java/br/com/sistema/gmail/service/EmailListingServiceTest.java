@@ -0,0 +1,29 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.service.EmailListingService.EmailPage;
+
+class EmailListingServiceTest {
+
+    @Test
+    void skipFollowsListedPositionsNotDeliveredCount() {
+        // Página lida a partir do item 2; o item 3 falhou na busca em lote
+        EmailPage page = new EmailPage(List.of(email("a"), email("c"), email("d")), List.of(2, 4, 5),
+                "token", 2, "proximo");
+
+        assertEquals(2, page.skipAfter(0));
+        assertEquals(3, page.skipAfter(1));
+        assertEquals(5, page.skipAfter(2));
+        assertEquals(6, page.skipAfter(3));
+    }
+
+    private static Email email(String id) {
+        return Email.builder().id(id).build();
+    }
+}
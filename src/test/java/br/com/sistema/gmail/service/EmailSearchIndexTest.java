@@ -0,0 +1,116 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.models.Remetente;
+
+class EmailSearchIndexTest {
+
+    private final EmailSearchIndex index = new EmailSearchIndex();
+
+    @Test
+    void findsBySubjectSenderAndPreviewIgnoringCaseAndAccents() {
+        index.add(email("1", "Relatório Financeiro", "Ana Souza", "ana@empresa.com", "segue o anexo"));
+
+        assertEquals(List.of("1"), index.search("relatorio", 10));
+        assertEquals(List.of("1"), index.search("SOUZA", 10));
+        assertEquals(List.of("1"), index.search("anexo", 10));
+        assertEquals(List.of(), index.search("orçamento", 10));
+    }
+
+    @Test
+    void requiresAllTerms() {
+        index.add(email("1", "fatura de março", "Banco", "banco@exemplo.com", ""));
+        index.add(email("2", "fatura de abril", "Banco", "banco@exemplo.com", ""));
+
+        assertEquals(List.of("1"), index.search("fatura marco", 10));
+        assertEquals(List.of(), index.search("fatura junho", 10));
+    }
+
+    @Test
+    void removedEmailIsNoLongerFound() {
+        index.add(email("1", "reunião de planejamento", "Ana", "ana@empresa.com", ""));
+        index.add(email("2", "planejamento anual", "Bruno", "bruno@empresa.com", ""));
+
+        index.remove("1");
+
+        assertEquals(List.of("2"), index.search("planejamento", 10));
+        assertEquals(List.of(), index.search("reuniao", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void reAddReplacesFieldsAndKeepsBody() {
+        index.add(email("1", "proposta comercial", "Ana", "ana@empresa.com", ""));
+        index.addBody("1", "cláusula de confidencialidade");
+
+        index.add(email("1", "proposta revisada", "Ana", "ana@empresa.com", ""));
+
+        assertEquals(List.of(), index.search("comercial", 10));
+        assertEquals(List.of("1"), index.search("revisada", 10));
+        assertEquals(List.of("1"), index.search("confidencialidade", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactionKeepsLiveEmailsSearchable() {
+        int total = 3000;
+        for (int i = 0; i < total; i++) {
+            index.add(email("id" + i, "assunto comum ident" + i, "Remetente", "r@exemplo.com", ""));
+        }
+        // Remove 2/3: passa do limite de slots vazios e força a compactação
+        for (int i = 0; i < total; i++) {
+            if (i % 3 != 0) {
+                index.remove("id" + i);
+            }
+        }
+
+        assertEquals(total / 3, index.size());
+        for (int i = 0; i < total; i++) {
+            List<String> found = index.search("ident" + i, 10);
+            assertEquals(i % 3 == 0 ? List.of("id" + i) : List.of(), found);
+        }
+        assertEquals(total / 3, index.search("assunto comum", total).size());
+    }
+
+    @Test
+    void ranksSubjectAboveSenderAboveText() {
+        index.add(email("texto", "outro assunto", "Carla", "carla@exemplo.com", "orcamento em anexo"));
+        index.add(email("assunto", "orcamento 2025", "Diego", "diego@exemplo.com", ""));
+        index.add(email("remetente", "sem relação", "Orcamento", "vendas@exemplo.com", ""));
+
+        assertEquals(List.of("assunto", "remetente", "texto"), index.search("orcamento", 10));
+        assertEquals(List.of("assunto"), index.search("orcamento", 1));
+    }
+
+    @Test
+    void rarerTermsWeighMore() {
+        // "alfa" aparece em todos; "beta" só em dois: o peso do termo raro decide
+        index.add(email("alfa-no-assunto", "alfa", "Ana", "ana@exemplo.com", "beta"));
+        index.add(email("beta-no-assunto", "beta", "Ana", "ana@exemplo.com", "alfa"));
+        for (int i = 0; i < 10; i++) {
+            index.add(email("outro" + i, "alfa", "Ana", "ana@exemplo.com", ""));
+        }
+
+        assertEquals(List.of("beta-no-assunto", "alfa-no-assunto"), index.search("alfa beta", 10));
+    }
+
+    @Test
+    void tokenizeDropsStopwordsAndShortTokens() {
+        assertEquals(List.of("nota", "fiscal", "sao", "paulo"), EmailSearchIndex.tokenize("Nota fiscal de São Paulo - a"));
+    }
+
+    private static Email email(String id, String assunto, String nome, String endereco, String previa) {
+        return Email.builder()
+                .id(id)
+                .assunto(assunto)
+                .remetente(new Remetente(nome, endereco))
+                .previa(previa)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class MailboxStateTest {
+
+    @Test
+    void syncLockIsPerMailbox() {
+        MailboxState pessoal = new MailboxState();
+        MailboxState financeiro = new MailboxState();
+
+        assertTrue(pessoal.tryLockSync());
+        try {
+            // Outra thread: a mesma caixa está ocupada, a outra não
+            assertFalse(CompletableFuture.supplyAsync(pessoal::tryLockSync).join());
+            assertTrue(CompletableFuture.supplyAsync(() -> {
+                boolean locked = financeiro.tryLockSync();
+                if (locked) {
+                    financeiro.unlockSync();
+                }
+                return locked;
+            }).join());
+        } finally {
+            pessoal.unlockSync();
+        }
+    }
+}
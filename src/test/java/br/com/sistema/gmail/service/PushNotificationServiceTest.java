@@ -0,0 +1,39 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class PushNotificationServiceTest {
+
+    @Test
+    void pushCannotBeEnabledWithoutAToken() {
+        assertThrows(IllegalStateException.class, () -> service(true, ""));
+    }
+
+    @Test
+    void onlyTheConfiguredTokenIsAuthorized() {
+        PushNotificationService service = service(true, "segredo");
+
+        assertTrue(service.isAuthorized("segredo"));
+        assertFalse(service.isAuthorized("outro"));
+        assertFalse(service.isAuthorized(null));
+    }
+
+    @Test
+    void disabledPushWithoutTokenRejectsEveryCall() {
+        PushNotificationService service = service(false, "");
+
+        assertFalse(service.isAuthorized(""));
+        assertFalse(service.isAuthorized(null));
+    }
+
+    private static PushNotificationService service(boolean enabled, String token) {
+        return new PushNotificationService(null, null, null, null, null, null,
+                enabled, Duration.ofSeconds(2), token, Duration.ofMinutes(10));
+    }
+}
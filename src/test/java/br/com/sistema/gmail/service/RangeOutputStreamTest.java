@@ -0,0 +1,72 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.sistema.gmail.service.GmailAttachmentService.RangeOutputStream;
+
+class RangeOutputStreamTest {
+
+    private static final byte[] DATA = new byte[100];
+
+    static {
+        for (int i = 0; i < DATA.length; i++) {
+            DATA[i] = (byte) i;
+        }
+    }
+
+    @Test
+    void keepsOnlyTheRangeAcrossChunks() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Blocos de 7 bytes não se alinham com o intervalo 10-19
+        assertThrows(RangeOutputStream.RangeWritten.class, () -> writeInChunks(new RangeOutputStream(out, 10, 19), 7));
+
+        assertArrayEquals(Arrays.copyOfRange(DATA, 10, 20), out.toByteArray());
+    }
+
+    @Test
+    void rangeInsideASingleChunk() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(RangeOutputStream.RangeWritten.class, () -> writeInChunks(new RangeOutputStream(out, 3, 5), 100));
+
+        assertArrayEquals(new byte[] {3, 4, 5}, out.toByteArray());
+    }
+
+    @Test
+    void singleByteWrites() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(RangeOutputStream.RangeWritten.class, () -> writeInChunks(new RangeOutputStream(out, 0, 1), 1));
+
+        assertArrayEquals(new byte[] {0, 1}, out.toByteArray());
+    }
+
+    @Test
+    void rangeUpToTheLastByteKeepsTheTail() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RangeOutputStream range = new RangeOutputStream(out, 90, Long.MAX_VALUE);
+
+        writeInChunks(range, 16);
+
+        assertArrayEquals(Arrays.copyOfRange(DATA, 90, 100), out.toByteArray());
+    }
+
+    private static void writeInChunks(RangeOutputStream out, int chunk) throws IOException {
+        for (int offset = 0; offset < DATA.length; offset += chunk) {
+            int length = Math.min(chunk, DATA.length - offset);
+            if (length == 1) {
+                out.write(DATA[offset]);
+            } else {
+                out.write(DATA, offset, length);
+            }
+        }
+    }
+}
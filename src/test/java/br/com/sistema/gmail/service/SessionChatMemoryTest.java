@@ -0,0 +1,105 @@
+package br.com.sistema.gmail.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+
+class SessionChatMemoryTest {
+
+    @Test
+    void keepsTheLastMessagesAndSummarizesEvictedOnes() {
+        SessionChatMemory memory = memory(4, 2000);
+        memory.add(SystemMessage.from("Você é um assistente."));
+        memory.add(UserMessage.from("pergunta 1"));
+        memory.add(AiMessage.from("resposta 1"));
+        memory.add(UserMessage.from("pergunta 2"));
+        memory.add(AiMessage.from("resposta 2"));
+        memory.add(UserMessage.from("pergunta 3"));
+
+        List<ChatMessage> messages = memory.messages();
+
+        assertEquals(3, memory.size());
+        assertEquals(UserMessage.from("pergunta 2"), messages.get(1));
+        SystemMessage system = assertInstanceOf(SystemMessage.class, messages.get(0));
+        assertTrue(system.text().startsWith("Você é um assistente."));
+        assertTrue(system.text().contains("• Usuário: pergunta 1\n• Assistente: resposta 1\n"), system::text);
+    }
+
+    @Test
+    void neverSplitsTheCurrentTurn() {
+        SessionChatMemory memory = memory(2, 2000);
+        ToolExecutionRequest request = ToolExecutionRequest.builder().id("1").name("listEmails").arguments("{}").build();
+
+        memory.add(UserMessage.from("liste meus emails"));
+        memory.add(AiMessage.from(request));
+        memory.add(ToolExecutionResultMessage.from(request, "3 emails"));
+        memory.add(AiMessage.from("Você tem 3 emails."));
+
+        // Acima do limite, mas tudo é do turno atual: nada sai
+        assertEquals(4, memory.size());
+        assertEquals(4, memory.messages().size());
+    }
+
+    @Test
+    void windowRestartsAtAUserMessage() {
+        SessionChatMemory memory = memory(3, 2000);
+        ToolExecutionRequest request = ToolExecutionRequest.builder().id("1").name("getEmailContent").arguments("{}").build();
+
+        memory.add(UserMessage.from("leia o m1"));
+        memory.add(AiMessage.from(request));
+        memory.add(ToolExecutionResultMessage.from(request, "conteúdo"));
+        memory.add(AiMessage.from("O email diz..."));
+        memory.add(UserMessage.from("obrigado"));
+
+        // Cortar só até o limite deixaria a janela começando num resultado de tool
+        List<ChatMessage> messages = memory.messages();
+        assertEquals(1, memory.size());
+        assertEquals(UserMessage.from("obrigado"), messages.get(messages.size() - 1));
+        assertInstanceOf(SystemMessage.class, messages.get(0));
+    }
+
+    @Test
+    void summaryIsBoundedAndDropsOldestLines() {
+        SessionChatMemory memory = memory(2, 120);
+        for (int i = 0; i < 20; i++) {
+            memory.add(UserMessage.from("pergunta " + i));
+            memory.add(AiMessage.from("resposta " + i));
+        }
+
+        String system = ((SystemMessage) memory.messages().get(0)).text();
+        String summary = system.substring(system.indexOf("==========\n", system.indexOf("RESUMO")) + 11);
+
+        assertTrue(summary.length() <= 120, () -> "resumo com " + summary.length() + " caracteres");
+        assertTrue(summary.startsWith("• "), () -> summary);
+        assertTrue(summary.contains("resposta 18"), () -> summary);
+        assertTrue(!summary.contains("pergunta 0\n"), () -> summary);
+    }
+
+    @Test
+    void clearResetsWindowAndSummary() {
+        SessionChatMemory memory = memory(2, 2000);
+        memory.add(UserMessage.from("a"));
+        memory.add(AiMessage.from("b"));
+        memory.add(UserMessage.from("c"));
+
+        memory.clear();
+
+        assertEquals(0, memory.size());
+        assertEquals(List.of(), memory.messages());
+    }
+
+    private static SessionChatMemory memory(int maxMessages, int summaryMaxChars) {
+        return new SessionChatMemory("sessao", maxMessages, summaryMaxChars, changed -> { });
+    }
+}
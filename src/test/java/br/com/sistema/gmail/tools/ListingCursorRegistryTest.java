@@ -0,0 +1,49 @@
+package br.com.sistema.gmail.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.sistema.gmail.client.GmailAccountContext;
+import br.com.sistema.gmail.tools.ListingCursorRegistry.ListingCursor;
+
+class ListingCursorRegistryTest {
+
+    private final ListingCursorRegistry registry = new ListingCursorRegistry(100, Duration.ofMinutes(30));
+
+    @Test
+    void registersShortIdsThatResolveBack() {
+        ListingCursor first = new ListingCursor("in:inbox", null, 20);
+        ListingCursor second = new ListingCursor("is:unread", "token-2", 0);
+
+        String firstId = registry.register(first);
+        String secondId = registry.register(second);
+
+        assertEquals("c1", firstId);
+        assertNotEquals(firstId, secondId);
+        assertEquals(Optional.of(first), registry.resolve(firstId));
+        assertEquals(Optional.of(second), registry.resolve(" " + secondId + " "));
+    }
+
+    @Test
+    void unknownOrBlankCursorsResolveToEmpty() {
+        assertEquals(Optional.empty(), registry.resolve("c999"));
+        assertEquals(Optional.empty(), registry.resolve(""));
+        assertEquals(Optional.empty(), registry.resolve(null));
+    }
+
+    @Test
+    void cursorIsOnlyValidInTheAccountThatCreatedIt() {
+        String id;
+        try (GmailAccountContext.Scope scope = GmailAccountContext.open("financeiro")) {
+            id = registry.register(new ListingCursor("label:faturas", "token", 5));
+            assertEquals("label:faturas", registry.resolve(id).orElseThrow().query());
+        }
+
+        assertEquals(Optional.empty(), registry.resolve(id));
+    }
+}
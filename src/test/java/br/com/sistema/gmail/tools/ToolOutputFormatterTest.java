@@ -0,0 +1,163 @@
+package br.com.sistema.gmail.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.sistema.gmail.models.Email;
+import br.com.sistema.gmail.models.Remetente;
+import br.com.sistema.gmail.service.GmailAttachmentService.Attachment;
+
+class ToolOutputFormatterTest {
+
+    private static final String HEADER = " | ref|de|data|flags(N=não lido,I=importante,E=estrela)|assunto\n";
+
+    private final ToolOutputFormatter formatter = formatter(1500, 4000);
+
+    @Test
+    void listingUsesRefsAliasesFlagsAndLocalTime() {
+        List<Email> emails = List.of(
+                email("a1", "Maria Silva", "maria@x.com", "Reunião amanhã", "2024-03-12T17:20:00Z", true, false, false),
+                email("b2", null, "loja@y.com", "Sua compra", "2024-03-12T12:02:00Z", false, false, false),
+                email("c3", "Maria Silva", "maria@x.com", "Re: Reunião amanhã", "2024-03-11T21:45:00Z", false, true, true));
+
+        assertEquals("3 emails" + HEADER
+                + "@1=Maria Silva <maria@x.com>\n"
+                + "m1|@1|2024-03-12 14:20|N|Reunião amanhã\n"
+                + "m2|loja@y.com|2024-03-12 09:02||Sua compra\n"
+                + "m3|@1|2024-03-11 18:45|IE|Re: Reunião amanhã\n",
+                formatter.formatListing("3 emails", emails));
+    }
+
+    @Test
+    void sameIdKeepsItsRef() {
+        Email email = email("a1", null, "ana@x.com", "Oi", "2024-03-12T17:20:00Z", false, false, false);
+
+        formatter.formatListing("1 email", List.of(email));
+
+        assertEquals("m1", formatter.ref("a1"));
+        assertEquals("m2", formatter.ref("z9"));
+    }
+
+    @Test
+    void separatorsAndLineBreaksAreCleanedAndEmptySubjectIsNamed() {
+        List<Email> emails = List.of(
+                email("a1", "Ana | Vendas", "ana@x.com", "linha 1\nlinha 2 | fim", "2024-03-12T17:20:00Z", false, false, false),
+                email("b2", null, "bia@x.com", "", "2024-03-12T17:20:00Z", false, false, false));
+
+        String listing = formatter.formatListing("2 emails", emails);
+
+        assertTrue(listing.contains("m1|Ana / Vendas <ana@x.com>|2024-03-12 14:20||linha 1 linha 2 / fim\n"), listing);
+        assertTrue(listing.contains("m2|bia@x.com|2024-03-12 14:20||(sem assunto)\n"), listing);
+    }
+
+    @Test
+    void budgetCutsRowsAndOffersTheCursor() {
+        ToolOutputFormatter small = formatter(30, 4000);
+        List<Email> emails = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            emails.add(email("id" + i, null, "r" + i + "@x.com", "assunto " + i, "2024-03-12T17:20:00Z", false, false, false));
+        }
+        AtomicInteger written = new AtomicInteger(-1);
+
+        String listing = small.formatListing("5 emails", emails, count -> {
+            written.set(count);
+            return "c7";
+        });
+
+        assertEquals(2, written.get());
+        assertTrue(listing.endsWith("m2|r1@x.com|2024-03-12 14:20||assunto 1\n"
+                + "[+3 omitidos pelo limite de tokens]\n"
+                + "[mais: moreEmails(\"c7\")]\n"), listing);
+    }
+
+    @Test
+    void budgetWithoutCursorAsksToRefine() {
+        ToolOutputFormatter small = formatter(30, 4000);
+        List<Email> emails = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            emails.add(email("id" + i, null, "r" + i + "@x.com", "assunto " + i, "2024-03-12T17:20:00Z", false, false, false));
+        }
+
+        String listing = small.formatListing("5 emails", emails);
+
+        assertTrue(listing.endsWith("[+3 omitidos pelo limite de tokens; refine a busca]\n"), listing);
+    }
+
+    @Test
+    void alwaysWritesAtLeastOneRow() {
+        ToolOutputFormatter tiny = formatter(1, 4000);
+
+        String listing = tiny.formatListing("1 email",
+                List.of(email("a1", null, "ana@x.com", "assunto longo demais para o orçamento", "2024-03-12T17:20:00Z",
+                        false, false, false)));
+
+        assertTrue(listing.contains("m1|ana@x.com|"), listing);
+    }
+
+    @Test
+    void detailIsTruncatedToTheBudget() {
+        ToolOutputFormatter small = formatter(1500, 50);
+        String body = "x".repeat(1000);
+
+        String detail = small.formatDetail("a1", "Ana <ana@x.com>", "eu@x.com", "Oi", "Tue, 12 Mar 2024", body);
+
+        assertTrue(detail.startsWith("ref: m1\nde: Ana <ana@x.com>\npara: eu@x.com\nassunto: Oi\ndata: Tue, 12 Mar 2024\n---\n"),
+                detail);
+        assertTrue(detail.endsWith("x\n[... conteúdo truncado]"), detail);
+        assertEquals(200 + "\n[... conteúdo truncado]".length(), detail.length());
+    }
+
+    @Test
+    void attachmentsListPartsAndReadableSizes() {
+        String output = formatter.formatAttachments("18d2f", List.of(
+                new Attachment("1", "nota.txt", "text/plain", 512),
+                new Attachment("2", "relatorio|final.pdf", "application/pdf", 5_033_165),
+                new Attachment("3.1", "foto.jpg", "image/jpeg", 1536)));
+
+        assertEquals("ref: m1 | 3 anexos (baixar em /api/v1/gmail/emails/18d2f/attachments/{parte})\n"
+                + "parte|nome|tipo|tamanho\n"
+                + "1|nota.txt|text/plain|512 B\n"
+                + "2|relatorio/final.pdf|application/pdf|4.8 MB\n"
+                + "3.1|foto.jpg|image/jpeg|1.5 KB\n", output);
+    }
+
+    @Test
+    void attachmentSizesRoundToOneDecimal() {
+        String output = formatter(4000, 4000).formatAttachments("18d2f", List.of(
+                new Attachment("1", "a", "text/plain", 1075),
+                new Attachment("2", "b", "text/plain", 1126),
+                new Attachment("3", "c", "text/plain", 1024 * 1024 - 1),
+                new Attachment("4", "d", "text/plain", 10 * 1024 * 1024)));
+
+        assertTrue(output.contains("1|a|text/plain|1.0 KB\n"), output);
+        assertTrue(output.contains("2|b|text/plain|1.1 KB\n"), output);
+        assertTrue(output.contains("3|c|text/plain|1024.0 KB\n"), output);
+        assertTrue(output.contains("4|d|text/plain|10.0 MB\n"), output);
+    }
+
+    private static ToolOutputFormatter formatter(int listingTokens, int detailTokens) {
+        return new ToolOutputFormatter(new MessageRefRegistry(100, Duration.ofHours(1)),
+                listingTokens, detailTokens, "America/Sao_Paulo");
+    }
+
+    private static Email email(String id, String nome, String endereco, String assunto, String recebido,
+                               boolean naoLido, boolean importante, boolean estrela) {
+        return Email.builder()
+                .id(id)
+                .remetente(new Remetente(nome, endereco))
+                .assunto(assunto)
+                .dataRecebimento(Instant.parse(recebido).toEpochMilli())
+                .naoLido(naoLido)
+                .importante(importante)
+                .estrela(estrela)
+                .build();
+    }
+}